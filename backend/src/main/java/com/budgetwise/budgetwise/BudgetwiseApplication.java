@@ -2,8 +2,10 @@ package com.budgetwise.budgetwise;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BudgetwiseApplication {
     public static void main(String[] args) {
         SpringApplication.run(BudgetwiseApplication.class, args);
@@ -0,0 +1,37 @@
+package com.budgetwise.budgetwise.config;
+
+import com.budgetwise.budgetwise.service.DataVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.security.Principal;
+
+// Answers 304 from the user's data version before any controller or repository runs
+@Component
+public class DataVersionEtagInterceptor implements HandlerInterceptor {
+
+    private final DataVersionService dataVersions;
+
+    public DataVersionEtagInterceptor(DataVersionService dataVersions) {
+        this.dataVersions = dataVersions;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Principal principal = request.getUserPrincipal();
+        if (!"GET".equals(request.getMethod()) || principal == null) {
+            return true;
+        }
+
+        // Read the version before the data: a concurrent write can only make the ETag older, never newer
+        String etag = dataVersions.etag(principal.getName());
+
+        // Browser keeps the body but must revalidate every time
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+}
@@ -0,0 +1,25 @@
+package com.budgetwise.budgetwise.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    // Fan-out pool for independent repository reads inside a single request.
+    // Carries the caller's SecurityContext so replica stickiness still applies.
+    @Bean
+    public AsyncTaskExecutor readFanOutExecutor(@Value("${app.executor.read-fan-out.size:16}") int size) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(size * 16);
+        executor.setThreadNamePrefix("read-fan-out-");
+        executor.initialize();
+        return new DelegatingSecurityContextAsyncTaskExecutor(executor);
+    }
+}
@@ -2,6 +2,7 @@ package com.budgetwise.budgetwise.config;
 
 import com.budgetwise.budgetwise.service.CustomUserDetailsService;
 import com.budgetwise.budgetwise.service.JwtUtil;
+import com.budgetwise.budgetwise.service.StreamTicketService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,12 +18,17 @@ import java.io.IOException;
 @Component
 public class JAuthFilter extends OncePerRequestFilter {
 
+    private static final String STREAM_PATH = "/api/stream";
+
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final StreamTicketService streamTickets;
 
-    public JAuthFilter(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService) {
+    public JAuthFilter(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService,
+                       StreamTicketService streamTickets) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.streamTickets = streamTickets;
     }
 
     @Override
@@ -42,6 +48,13 @@ public class JAuthFilter extends OncePerRequestFilter {
 
         if (header != null && header.startsWith("Bearer ")) {
             token = header.substring(7);
+        } else if (STREAM_PATH.equals(request.getRequestURI())) {
+            // EventSource cannot set headers; the SSE endpoint takes a one-time ticket
+            // (POST /api/stream/ticket), never the JWT itself
+            username = streamTickets.redeem(request.getParameter("ticket")).orElse(null);
+        }
+
+        if (token != null) {
             try {
                 // existing validateToken(token) method usage
                 if (jwtUtil.validateToken(token)) {
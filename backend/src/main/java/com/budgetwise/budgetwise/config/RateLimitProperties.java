@@ -0,0 +1,57 @@
+package com.budgetwise.budgetwise.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// app.rate-limit.* - route classes by name. They are tried by ascending order,
+// then name, and the first class with a matching path pattern applies; the
+// map's own order is not used, since it depends on the property source.
+@Component
+@ConfigurationProperties("app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private Map<String, RouteClass> classes = new LinkedHashMap<>();
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Map<String, RouteClass> getClasses() { return classes; }
+    public void setClasses(Map<String, RouteClass> classes) { this.classes = classes; }
+
+    public static class RouteClass {
+
+        // Lower is tried first, so specific classes go below catch-alls like /api/**
+        private int order = 0;
+
+        // Ant-style patterns, e.g. /api/reports/export-*
+        private List<String> paths = new ArrayList<>();
+
+        // Per user: burst size and sustained requests per minute
+        private int capacity = 60;
+        private double perMinute = 120;
+
+        // Per node: requests of this class running at once; 0 = no bulkhead
+        private int maxConcurrent = 0;
+
+        public int getOrder() { return order; }
+        public void setOrder(int order) { this.order = order; }
+
+        public List<String> getPaths() { return paths; }
+        public void setPaths(List<String> paths) { this.paths = paths; }
+
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+
+        public double getPerMinute() { return perMinute; }
+        public void setPerMinute(double perMinute) { this.perMinute = perMinute; }
+
+        public int getMaxConcurrent() { return maxConcurrent; }
+        public void setMaxConcurrent(int maxConcurrent) { this.maxConcurrent = maxConcurrent; }
+    }
+}
@@ -0,0 +1,90 @@
+package com.budgetwise.budgetwise.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Sends @Transactional(readOnly = true) work to the replica pool and everything
+ * else to the primary. Must sit behind a LazyConnectionDataSourceProxy so the
+ * read-only flag is already bound when the physical connection is fetched.
+ *
+ * Read-your-writes: after a user runs a read-write transaction, that user's
+ * reads stay on the primary for stickyWindowMillis so replica lag is never visible.
+ *
+ * Reads whose result is cached or compared against the latest write (data
+ * versions, cache loads) run inside onPrimary(), which pins them to the primary
+ * without making the user sticky.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private static final int CLEANUP_THRESHOLD = 10_000;
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final long stickyWindowMillis;
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, long stickyWindowMillis) {
+        this.stickyWindowMillis = stickyWindowMillis;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    // 🟢 Every connection fetched inside goes to the primary, read-only or not. Call it
+    // outside any transaction: one already holding a replica connection keeps it.
+    public static <T> T onPrimary(Supplier<T> reads) {
+        Boolean outer = PRIMARY_ONLY.get();
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            if (outer == null) PRIMARY_ONLY.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (PRIMARY_ONLY.get() != null) return Route.PRIMARY;
+
+        String username = currentUsername();
+        long now = System.currentTimeMillis();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (username != null && stickyWindowMillis > 0
+                    && TransactionSynchronizationManager.isActualTransactionActive()) {
+                markWrite(username, now);
+            }
+            return Route.PRIMARY;
+        }
+
+        if (username != null) {
+            Long until = stickyUntil.get(username);
+            if (until != null) {
+                if (until > now) return Route.PRIMARY;
+                stickyUntil.remove(username, until);
+            }
+        }
+        return Route.REPLICA;
+    }
+
+    private void markWrite(String username, long now) {
+        stickyUntil.put(username, now + stickyWindowMillis);
+        if (stickyUntil.size() > CLEANUP_THRESHOLD) {
+            stickyUntil.values().removeIf(until -> until <= now);
+        }
+    }
+
+    private String currentUsername() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.isAuthenticated() ? auth.getName() : null;
+    }
+}
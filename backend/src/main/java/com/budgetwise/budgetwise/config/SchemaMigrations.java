@@ -0,0 +1,198 @@
+package com.budgetwise.budgetwise.config;
+
+import com.budgetwise.budgetwise.entity.Category;
+import com.budgetwise.budgetwise.entity.TransactionType;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.*;
+
+/**
+ * Data migrations that ddl-auto=update cannot express. Runs once Hibernate has
+ * added the new columns and before anything reads them; every step checks the
+ * schema first, so re-running (or crashing half-way) is safe.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaMigrations {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrations.class);
+
+    private final JdbcTemplate jdbc;
+
+    public SchemaMigrations(DataSource dataSource) {
+        this.jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        moneyToMinorUnits("transactions", "amount", "amount_minor");
+        moneyToMinorUnits("budgets", "limit_amount", "limit_amount_minor");
+        moneyToMinorUnits("budgets", "spent_amount", "spent_amount_minor");
+        moneyToMinorUnits("goals", "target_amount", "target_amount_minor");
+        moneyToMinorUnits("goals", "saved_amount", "saved_amount_minor");
+        categoriesToDictionary("transactions", "budgets");
+        transactionTypeToCode();
+        initialVersion("transactions", "budgets", "goals", "categories");
+        budgetPeriods();
+        goalOpeningBalances();
+        spendStatistics();
+    }
+
+    // 🟢 DOUBLE rupees → BIGINT paise, then drop the old column
+    private void moneyToMinorUnits(String table, String oldColumn, String newColumn) {
+        if (!columnExists(table, oldColumn) || !columnExists(table, newColumn)) return;
+
+        int rows = jdbc.update("UPDATE " + table + " SET " + newColumn + " = ROUND(" + oldColumn + " * 100)"
+                + " WHERE " + newColumn + " IS NULL AND " + oldColumn + " IS NOT NULL");
+        jdbc.execute("ALTER TABLE " + table + " DROP COLUMN " + oldColumn);
+        log.info("Migrated {}.{} to {} ({} rows)", table, oldColumn, newColumn, rows);
+    }
+
+    // 🟢 Free-text category column → per-user categories table. Spellings that
+    // differ only by case / spacing ("Food", "food ", "FOOD") merge into one
+    // row named after the most used spelling.
+    private void categoriesToDictionary(String... tables) {
+        List<String> pending = new ArrayList<>();
+        for (String table : tables) {
+            if (columnExists(table, "category") && columnExists(table, "category_id")) pending.add(table);
+        }
+        if (pending.isEmpty()) return;
+
+        // user id → key → spelling → rows
+        Map<Long, Map<String, Map<String, Long>>> variants = new HashMap<>();
+        for (String table : pending) {
+            jdbc.query("SELECT user_id, ANY_VALUE(category), COUNT(*) FROM " + table
+                    + " WHERE category IS NOT NULL AND category_id IS NULL AND user_id IS NOT NULL"
+                    + " GROUP BY user_id, CAST(category AS BINARY)", rs -> {
+                String raw = rs.getString(2);
+                String key = truncate(Category.keyOf(raw));
+                if (key.isEmpty()) return;
+                variants.computeIfAbsent(rs.getLong(1), u -> new HashMap<>())
+                        .computeIfAbsent(key, k -> new HashMap<>())
+                        .merge(raw, rs.getLong(3), Long::sum);
+            });
+        }
+
+        List<Object[]> inserts = new ArrayList<>();
+        variants.forEach((userId, byKey) -> byKey.forEach((key, spellings) -> {
+            String name = Collections.max(spellings.entrySet(), Map.Entry.comparingByValue()).getKey();
+            inserts.add(new Object[]{userId, truncate(name.trim().replaceAll("\\s+", " ")), key});
+        }));
+        jdbc.batchUpdate("INSERT IGNORE INTO categories (user_id, name, name_key) VALUES (?, ?, ?)", inserts);
+
+        List<Object[]> updates = new ArrayList<>();
+        variants.forEach((userId, byKey) -> {
+            Map<String, Integer> ids = new HashMap<>();
+            jdbc.query("SELECT name_key, id FROM categories WHERE user_id = ?",
+                    rs -> { ids.put(rs.getString(1), rs.getInt(2)); }, userId);
+            byKey.forEach((key, spellings) -> spellings.keySet().forEach(raw ->
+                    updates.add(new Object[]{ids.get(key), userId, raw})));
+        });
+
+        for (String table : pending) {
+            jdbc.batchUpdate("UPDATE " + table + " SET category_id = ?"
+                    + " WHERE user_id = ? AND CAST(category AS BINARY) = CAST(? AS BINARY) AND category_id IS NULL",
+                    updates);
+            jdbc.execute("ALTER TABLE " + table + " DROP COLUMN category");
+            log.info("Migrated {}.category to categories ({} spellings)", table, updates.size());
+        }
+    }
+
+    // 🟢 VARCHAR type → TINYINT type_code. Anything that is not INCOME was already
+    // counted as spending by the monthly summaries, so it becomes EXPENSE.
+    private void transactionTypeToCode() {
+        if (!columnExists("transactions", "type") || !columnExists("transactions", "type_code")) return;
+
+        int rows = jdbc.update("UPDATE transactions SET type_code = CASE UPPER(TRIM(type))"
+                + " WHEN 'INCOME' THEN " + TransactionType.INCOME.code()
+                + " ELSE " + TransactionType.EXPENSE.code() + " END"
+                + " WHERE type_code IS NULL");
+        jdbc.execute("ALTER TABLE transactions DROP COLUMN type");
+        log.info("Migrated transactions.type to type_code ({} rows)", rows);
+    }
+
+    // 🟢 @Version columns added to existing tables start out NULL
+    private void initialVersion(String... tables) {
+        for (String table : tables) {
+            if (!columnExists(table, "version")) continue;
+            int rows = jdbc.update("UPDATE " + table + " SET version = 0 WHERE version IS NULL");
+            if (rows > 0) log.info("Initialised {}.version ({} rows)", table, rows);
+        }
+    }
+
+    // 🟢 month name + year → MONTHLY period_start / period_end, and spent recomputed
+    // for that exact month (it used to count the same month of every year).
+    // period_end is set last, so a crash part-way just recomputes again.
+    private void budgetPeriods() {
+        if (!columnExists("budgets", "period_start") || !columnExists("budgets", "month")) return;
+
+        jdbc.update("UPDATE budgets SET period_type = 'MONTHLY',"
+                + " period_start = STR_TO_DATE(CONCAT(IF(year > 0, year, YEAR(CURDATE())), ' ', TRIM(month), ' 1'), '%Y %M %e')"
+                + " WHERE period_start IS NULL AND month IS NOT NULL");
+        int rows = jdbc.update("""
+                UPDATE budgets b SET b.spent_amount_minor = (
+                    SELECT COALESCE(SUM(t.amount_minor), 0) FROM transactions t
+                    WHERE t.user_id = b.user_id AND t.category_id = b.category_id AND t.type_code = ?
+                      AND t.date BETWEEN b.period_start AND LAST_DAY(b.period_start))
+                WHERE b.period_end IS NULL AND b.period_start IS NOT NULL
+                """, TransactionType.EXPENSE.code());
+        jdbc.update("UPDATE budgets SET period_end = LAST_DAY(period_start)"
+                + " WHERE period_end IS NULL AND period_start IS NOT NULL");
+        if (rows > 0) log.info("Migrated budgets.month/year to periods ({} rows)", rows);
+
+        Integer unparsed = jdbc.queryForObject("SELECT COUNT(*) FROM budgets WHERE period_start IS NULL", Integer.class);
+        if (unparsed != null && unparsed > 0) {
+            log.warn("{} budgets have no usable month/year and will not track spending", unparsed);
+        }
+    }
+
+    // 🟢 Saved amounts from before the contribution ledger become one opening
+    // contribution per goal, so the ledger always sums to saved_amount_minor
+    private void goalOpeningBalances() {
+        if (!columnExists("goal_contributions", "goal_id")) return;
+
+        int rows = jdbc.update("""
+                INSERT INTO goal_contributions (goal_id, amount_minor, note, contributed_on, created_at)
+                SELECT g.id, g.saved_amount_minor, 'Opening balance', CURDATE(), NOW() FROM goals g
+                WHERE g.saved_amount_minor <> 0
+                  AND NOT EXISTS (SELECT 1 FROM goal_contributions c WHERE c.goal_id = g.id)
+                """);
+        if (rows > 0) log.info("Created opening contributions for {} goals", rows);
+    }
+
+    // 🟢 Anomaly statistics start from the existing expenses instead of from zero.
+    // Only into an empty table: later rows are merged in by the writes themselves.
+    private void spendStatistics() {
+        if (!columnExists("category_spend_stats", "m2")) return;
+        Integer existing = jdbc.queryForObject("SELECT COUNT(*) FROM category_spend_stats", Integer.class);
+        if (existing == null || existing > 0) return;
+
+        int rows = jdbc.update("""
+                INSERT INTO category_spend_stats (user_id, category_id, n, mean, m2)
+                SELECT user_id, COALESCE(category_id, 0), COUNT(*), AVG(LN(amount_minor)),
+                       VAR_POP(LN(amount_minor)) * COUNT(*)
+                FROM transactions
+                WHERE type_code = ? AND amount_minor > 0 AND user_id IS NOT NULL
+                GROUP BY user_id, COALESCE(category_id, 0)
+                """, TransactionType.EXPENSE.code());
+        if (rows > 0) log.info("Seeded spending statistics for {} user categories", rows);
+    }
+
+    private static String truncate(String s) {
+        return s.length() <= 100 ? s : s.substring(0, 100);
+    }
+
+    private boolean columnExists(String table, String column) {
+        Integer count = jdbc.queryForObject("""
+                SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?
+                """, Integer.class, table, column);
+        return count != null && count > 0;
+    }
+}
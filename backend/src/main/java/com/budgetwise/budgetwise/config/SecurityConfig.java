@@ -1,6 +1,7 @@
 package com.budgetwise.budgetwise.config;
 
 import com.budgetwise.budgetwise.service.CustomUserDetailsService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -20,10 +21,13 @@ public class SecurityConfig {
 
     private final CustomUserDetailsService userDetailsService;
     private final JAuthFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
 
-    public SecurityConfig(CustomUserDetailsService userDetailsService, JAuthFilter jwtAuthFilter) {
+    public SecurityConfig(CustomUserDetailsService userDetailsService, JAuthFilter jwtAuthFilter,
+                          RateLimitFilter rateLimitFilter) {
         this.userDetailsService = userDetailsService;
         this.jwtAuthFilter = jwtAuthFilter;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     // ✅ MAIN SECURITY CONFIG
@@ -54,24 +58,54 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
 
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // keyed by the user JAuthFilter just authenticated
+                .addFilterAfter(rateLimitFilter, JAuthFilter.class);
 
         return http.build();
     }
 
     // ✅ FIXED AUTH MANAGER (THIS WAS THE CAUSE OF 401 BUG)
     @Bean
-    public AuthenticationManager authenticationManager() {
+    public AuthenticationManager authenticationManager(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService);
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(passwordEncoder);
+        // Stores the re-hashed password when upgradeEncoding says the stored one is stale
+        provider.setUserDetailsPasswordService(userDetailsService);
 
         return new ProviderManager(List.of(provider));
     }
 
-    // ✅ PASSWORD ENCODER
+    // ✅ PASSWORD ENCODER (cost from app.security.bcrypt-strength)
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt-strength:10}") int strength) {
+        return new CostAwareBCryptPasswordEncoder(strength);
+    }
+
+    // BCrypt at the configured cost. A hash made at any other cost, higher or
+    // lower, counts as stale, so changing the setting re-hashes each user on
+    // their next successful login.
+    static final class CostAwareBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+        private final int strength;
+
+        CostAwareBCryptPasswordEncoder(int strength) {
+            super(strength);
+            this.strength = strength;
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            // "$2a$10$...": the cost is the two digits after the version
+            if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+                return false;
+            }
+            try {
+                return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+            } catch (NumberFormatException ex) {
+                return false;
+            }
+        }
     }
 }
@@ -19,4 +19,23 @@ public class WebConfig {
             }
         };
     }
+
+    // ETag / 304 for per-user read endpoints (see DataVersionEtagInterceptor)
+    @Bean
+    public WebMvcConfigurer conditionalGetConfigurer(DataVersionEtagInterceptor etagInterceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(etagInterceptor)
+                        .addPathPatterns(
+                                "/api/transactions",
+                                "/api/budgets",
+                                "/api/goals",
+                                "/api/goals/forecast",
+                                "/api/dashboard",
+                                "/api/analytics/**"
+                        );
+            }
+        };
+    }
 }
@@ -3,8 +3,14 @@ package com.budgetwise.budgetwise.controller;
 import com.budgetwise.budgetwise.entity.User;
 import com.budgetwise.budgetwise.repository.UserRepository;
 import com.budgetwise.budgetwise.repository.TransactionRepository;
-import com.budgetwise.budgetwise.entity.Transaction;
+import com.budgetwise.budgetwise.repository.TransactionView;
+import com.budgetwise.budgetwise.service.BudgetRolloverJob;
+import com.budgetwise.budgetwise.service.CacheInvalidationBus;
+import com.budgetwise.budgetwise.service.InsightBatchJob;
+import com.budgetwise.budgetwise.service.PasswordHashingService;
+import com.budgetwise.budgetwise.service.RateLimiterService;
 
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
 
@@ -15,14 +21,28 @@ public class AdminController {
 
     private final UserRepository userRepo;
     private final TransactionRepository txRepo;
+    private final CacheInvalidationBus invalidationBus;
+    private final BudgetRolloverJob rolloverJob;
+    private final InsightBatchJob insightJob;
+    private final RateLimiterService rateLimiter;
+    private final PasswordHashingService hashing;
 
-    public AdminController(UserRepository userRepo, TransactionRepository txRepo) {
+    public AdminController(UserRepository userRepo, TransactionRepository txRepo,
+                           CacheInvalidationBus invalidationBus, BudgetRolloverJob rolloverJob,
+                           InsightBatchJob insightJob, RateLimiterService rateLimiter,
+                           PasswordHashingService hashing) {
         this.userRepo = userRepo;
         this.txRepo = txRepo;
+        this.invalidationBus = invalidationBus;
+        this.rolloverJob = rolloverJob;
+        this.insightJob = insightJob;
+        this.rateLimiter = rateLimiter;
+        this.hashing = hashing;
     }
 
     // ⭐ 1. Get all users
     @GetMapping("/users")
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepo.findAll();
     }
@@ -33,6 +53,7 @@ public class AdminController {
         User user = userRepo.findById(userId).orElseThrow();
         user.setRole(com.budgetwise.budgetwise.entity.Role.BANNED);
         userRepo.save(user);
+        invalidationBus.publish(CacheInvalidationBus.USER, user.getId());
         return Map.of("message", "User banned successfully");
     }
 
@@ -42,12 +63,35 @@ public class AdminController {
         User user = userRepo.findById(userId).orElseThrow();
         user.setRole(com.budgetwise.budgetwise.entity.Role.USER);
         userRepo.save(user);
+        invalidationBus.publish(CacheInvalidationBus.USER, user.getId());
         return Map.of("message", "User unbanned successfully");
     }
 
     // ⭐ 4. View user transactions
     @GetMapping("/transactions/{username}")
-    public List<Transaction> getUserTransactions(@PathVariable String username) {
-        return txRepo.findByUserUsername(username);
+    @Transactional(readOnly = true)
+    public List<TransactionView> getUserTransactions(@PathVariable String username) {
+        return txRepo.findViewsByUsername(username);
+    }
+
+    // ⭐ 5. Run the budget rollover now (resumes an interrupted run; "busy" if another node has it)
+    @PostMapping("/budget-rollover")
+    public Map<String, Object> runBudgetRollover() {
+        return rolloverJob.run();
+    }
+
+    // ⭐ 6. Precompute every user's insights now (same lease and resume rules)
+    @PostMapping("/insight-batch")
+    public Map<String, Object> runInsightBatch() {
+        return insightJob.run();
+    }
+
+    // ⭐ 7. Rate limit / bulkhead counters per route class since this node started
+    @GetMapping("/rate-limits")
+    public Map<String, Object> rateLimits() {
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("routeClasses", rateLimiter.metrics());
+        res.put("passwordHashingRejected", hashing.rejectedCount());
+        return res;
     }
 }
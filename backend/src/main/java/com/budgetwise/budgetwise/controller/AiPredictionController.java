@@ -1,22 +1,30 @@
 package com.budgetwise.budgetwise.controller;
 
-import com.budgetwise.budgetwise.service.AiPredictionService;
+import com.budgetwise.budgetwise.service.InsightService;
 import org.springframework.web.bind.annotation.*;
 import java.security.Principal;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/ai")
 @CrossOrigin(origins = "http://localhost:5173")
 public class AiPredictionController {
 
-    private final AiPredictionService aiService;
+    private final InsightService insightService;
 
-    public AiPredictionController(AiPredictionService aiService) {
-        this.aiService = aiService;
+    public AiPredictionController(InsightService insightService) {
+        this.insightService = insightService;
     }
 
+    // 🟢 Served from the nightly precomputed row unless the user's data changed since
     @GetMapping("/predict-expenses")
     public Object getPrediction(Principal principal) {
-        return aiService.predictExpenses(principal.getName());
+        return insightService.predictExpenses(principal.getName());
+    }
+
+    // 🟢 Prediction plus top category changes and anomalies for last month
+    @GetMapping("/insights")
+    public Map<String, Object> getInsights(Principal principal) {
+        return insightService.insights(principal.getName());
     }
 }
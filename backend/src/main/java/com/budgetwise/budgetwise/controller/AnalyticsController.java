@@ -1,71 +1,68 @@
 package com.budgetwise.budgetwise.controller;
 
-import com.budgetwise.budgetwise.entity.Transaction;
-import com.budgetwise.budgetwise.repository.TransactionRepository;
+import com.budgetwise.budgetwise.service.TransactionColumnCache;
+import com.budgetwise.budgetwise.service.TransactionColumns;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.Authentication;
+import java.time.Month;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "http://localhost:5173")
 @RestController
 @RequestMapping("/api/analytics")
 public class AnalyticsController {
 
-    private final TransactionRepository txRepo;
+    private final TransactionColumnCache columnCache;
 
-    public AnalyticsController(TransactionRepository txRepo) {
-        this.txRepo = txRepo;
+    public AnalyticsController(TransactionColumnCache columnCache) {
+        this.columnCache = columnCache;
     }
 
     // 1️⃣ Category-wise spending summary
     @GetMapping("/category-summary")
     public Map<String, Double> getCategorySummary(Authentication auth) {
-        String username = auth.getName();
-        List<Transaction> transactions = txRepo.findByUserUsername(username);
-
-        return transactions.stream()
-                .filter(t -> "EXPENSE".equalsIgnoreCase(t.getType()))
-                .collect(Collectors.groupingBy(
-                        Transaction::getCategory,
-                        Collectors.summingDouble(Transaction::getAmount)
-                ));
+        TransactionColumns cols = columnCache.get(auth.getName());
+        return cols.categoryTotals(TransactionColumns.EXPENSE,
+                TransactionColumns.ALL_DAYS_FROM, TransactionColumns.ALL_DAYS_TO);
     }
 
-    // 2️⃣ Monthly income vs expense
+    // 2️⃣ Monthly income vs expense (by month name, in order of first appearance)
     @GetMapping("/monthly-summary")
     public List<Map<String, Object>> getMonthlySummary(Authentication auth) {
-        String username = auth.getName();
-        List<Transaction> transactions = txRepo.findByUserUsername(username);
-
-        Map<String, Map<String, Double>> monthlyData = new LinkedHashMap<>();
+        TransactionColumns cols = columnCache.get(auth.getName());
 
-        for (Transaction t : transactions) {
-            if (t.getDate() == null) continue;
-            String month = t.getDate().getMonth().name();
+        long[] income = new long[12];
+        long[] expense = new long[12];
+        int[] order = new int[12];
+        boolean[] seen = new boolean[12];
+        int months = 0;
 
-            monthlyData.putIfAbsent(month, new HashMap<>());
-            monthlyData.get(month).putIfAbsent("income", 0.0);
-            monthlyData.get(month).putIfAbsent("expense", 0.0);
+        for (int i = 0; i < cols.size(); i++) {
+            int day = cols.epochDay(i);
+            if (day == TransactionColumns.NO_DATE) continue;
+            int m = TransactionColumns.monthOfYear(day) - 1;
 
-            if ("INCOME".equalsIgnoreCase(t.getType())) {
-                monthlyData.get(month).put("income",
-                        monthlyData.get(month).get("income") + t.getAmount());
+            if (!seen[m]) {
+                seen[m] = true;
+                order[months++] = m;
+            }
+            if (cols.is(i, TransactionColumns.INCOME)) {
+                income[m] = Math.addExact(income[m], cols.amount(i));
             } else {
-                monthlyData.get(month).put("expense",
-                        monthlyData.get(month).get("expense") + t.getAmount());
+                expense[m] = Math.addExact(expense[m], cols.amount(i));
             }
         }
 
         // Convert to list for frontend
         List<Map<String, Object>> result = new ArrayList<>();
-        monthlyData.forEach((month, map) -> {
+        for (int k = 0; k < months; k++) {
+            int m = order[k];
             Map<String, Object> row = new HashMap<>();
-            row.put("month", month);
-            row.put("income", map.get("income"));
-            row.put("expense", map.get("expense"));
+            row.put("month", Month.of(m + 1).name());
+            row.put("income", TransactionColumns.toMajor(income[m]));
+            row.put("expense", TransactionColumns.toMajor(expense[m]));
             result.add(row);
-        });
+        }
 
         return result;
     }
@@ -3,11 +3,14 @@ package com.budgetwise.budgetwise.controller;
 import com.budgetwise.budgetwise.entity.Role;
 import com.budgetwise.budgetwise.entity.User;
 import com.budgetwise.budgetwise.repository.UserRepository;
+import com.budgetwise.budgetwise.service.AuthThrottleService;
+import com.budgetwise.budgetwise.service.CacheInvalidationBus;
 import com.budgetwise.budgetwise.service.JwtUtil;
+import com.budgetwise.budgetwise.service.PasswordHashingService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.*;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -20,23 +23,31 @@ import java.util.Optional;
 public class AuthController {
 
     private final UserRepository repo;
-    private final PasswordEncoder encoder;
+    private final PasswordHashingService hashing;
+    private final AuthThrottleService throttle;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authManager;
+    private final CacheInvalidationBus invalidationBus;
 
+    // BCrypt runs on PasswordHashingService's pool, never on the request thread
     public AuthController(UserRepository repo,
-                          PasswordEncoder encoder,
+                          PasswordHashingService hashing,
+                          AuthThrottleService throttle,
                           JwtUtil jwtUtil,
-                          AuthenticationManager authManager) {
+                          AuthenticationManager authManager,
+                          CacheInvalidationBus invalidationBus) {
         this.repo = repo;
-        this.encoder = encoder;
+        this.hashing = hashing;
+        this.throttle = throttle;
         this.jwtUtil = jwtUtil;
         this.authManager = authManager;
+        this.invalidationBus = invalidationBus;
     }
 
     // ================= SIGNUP =================
     @PostMapping("/signup")
-    public ResponseEntity<?> signup(@RequestBody User user) {
+    public ResponseEntity<?> signup(@RequestBody User user, HttpServletRequest request) {
+        throttle.checkIp(request);
 
         if (user.getUsername() == null || user.getUsername().isBlank()) {
             return ResponseEntity.badRequest().body(Map.of("error", "Username is required"));
@@ -58,7 +69,7 @@ public class AuthController {
             return ResponseEntity.badRequest().body(Map.of("error", "Email already registered"));
         }
 
-        user.setPassword(encoder.encode(user.getPassword()));
+        user.setPassword(hashing.encode(user.getPassword()));
         user.setRole(user.getRole() == null ? Role.USER : user.getRole());
 
         repo.save(user);
@@ -69,7 +80,8 @@ public class AuthController {
 
     // ================= LOGIN =================
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> body) {
+    public ResponseEntity<?> login(@RequestBody Map<String, String> body, HttpServletRequest request) {
+        throttle.checkIp(request);
 
         String username = body.get("username");
         String password = body.get("password");
@@ -80,10 +92,13 @@ public class AuthController {
                     .body(Map.of("error", "Username and password are required"));
         }
 
+        throttle.checkUsername(username);
+
         try {
-            authManager.authenticate(
+            hashing.authenticate(authManager,
                     new UsernamePasswordAuthenticationToken(username, password)
             );
+            throttle.loginSucceeded(username);
 
             User dbUser = repo.findByUsername(username)
                     .orElseThrow(() -> new RuntimeException("User not found"));
@@ -106,6 +121,7 @@ public class AuthController {
             return ResponseEntity.ok(response);
 
         } catch (BadCredentialsException ex) {
+            throttle.loginFailed(username);
             return ResponseEntity.status(401)
                     .body(Map.of("error", "Invalid username or password"));
         }
@@ -114,7 +130,8 @@ public class AuthController {
 
  // ================= CHANGE PASSWORD =================
     @PostMapping("/change-password")
-    public ResponseEntity<?> changePassword(@RequestBody Map<String, String> req) {
+    public ResponseEntity<?> changePassword(@RequestBody Map<String, String> req, HttpServletRequest request) {
+        throttle.checkIp(request);
 
         String oldPassword = req.get("oldPassword");
         String newPassword = req.get("newPassword");
@@ -136,22 +153,25 @@ public class AuthController {
 
         User user = repo.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        throttle.checkUsername(username);
 
-        // Check old password
-        if (!encoder.matches(oldPassword, user.getPassword())) {
+        // Check old password (a wrong one counts like a failed login)
+        if (!hashing.matches(oldPassword, user.getPassword())) {
+            throttle.loginFailed(username);
             return ResponseEntity.status(400)
                     .body(Map.of("error", "Old password is incorrect"));
         }
 
         // Prevent same password
-        if (encoder.matches(newPassword, user.getPassword())) {
+        if (newPassword.equals(oldPassword) || hashing.matches(newPassword, user.getPassword())) {
             return ResponseEntity.status(400)
                     .body(Map.of("error", "New password cannot be same as old password"));
         }
 
         // Save new password
-        user.setPassword(encoder.encode(newPassword));
+        user.setPassword(hashing.encode(newPassword));
         repo.save(user);
+        invalidationBus.publish(CacheInvalidationBus.USER, user.getId());
 
         return ResponseEntity.ok(Map.of("message", "Password changed successfully"));
     }
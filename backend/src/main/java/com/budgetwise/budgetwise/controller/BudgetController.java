@@ -2,9 +2,15 @@ package com.budgetwise.budgetwise.controller;
 
 import com.budgetwise.budgetwise.entity.Budget;
 import com.budgetwise.budgetwise.service.BudgetService;
+import com.budgetwise.budgetwise.service.VersionConflictException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.Authentication;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @CrossOrigin(origins = "http://localhost:5173")
 @RestController
@@ -26,8 +32,24 @@ public class BudgetController {
         return service.getBudgets(auth.getName());
     }
 
+    // 🟢 Conditional on If-Match (or the body's "version"); 409 + current row when stale
+    @PutMapping("/{id}")
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Budget budget,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                    Authentication auth) {
+        try {
+            Budget saved = service.updateBudget(id, budget, IfMatch.version(ifMatch, budget.getVersion()), auth.getName());
+            return ResponseEntity.ok().eTag(IfMatch.etag(saved.getVersion())).body(saved);
+        } catch (VersionConflictException ex) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("error", ex.getMessage());
+            body.put("current", ex.getCurrent());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+        }
+    }
+
     @DeleteMapping("/{id}")
-    public void delete(@PathVariable Long id) {
-        service.deleteBudget(id);
+    public void delete(@PathVariable Long id, Authentication auth) {
+        service.deleteBudget(id, auth.getName());
     }
 }
@@ -0,0 +1,56 @@
+package com.budgetwise.budgetwise.controller;
+
+import com.budgetwise.budgetwise.entity.BudgetTemplate;
+import com.budgetwise.budgetwise.service.BudgetTemplateService;
+import com.budgetwise.budgetwise.service.VersionConflictException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Repeating budgets: BudgetRolloverJob creates each period's Budget from these
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/budget-templates")
+public class BudgetTemplateController {
+    private final BudgetTemplateService service;
+
+    public BudgetTemplateController(BudgetTemplateService service) {
+        this.service = service;
+    }
+
+    @PostMapping
+    public BudgetTemplate add(@RequestBody BudgetTemplate template, Authentication auth) {
+        return service.addTemplate(template, auth.getName());
+    }
+
+    @GetMapping
+    public List<BudgetTemplate> all(Authentication auth) {
+        return service.getTemplates(auth.getName());
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody BudgetTemplate template,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                    Authentication auth) {
+        try {
+            BudgetTemplate saved = service.updateTemplate(id, template,
+                    IfMatch.version(ifMatch, template.getVersion()), auth.getName());
+            return ResponseEntity.ok().eTag(IfMatch.etag(saved.getVersion())).body(saved);
+        } catch (VersionConflictException ex) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("error", ex.getMessage());
+            body.put("current", ex.getCurrent());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public void delete(@PathVariable Long id, Authentication auth) {
+        service.deleteTemplate(id, auth.getName());
+    }
+}
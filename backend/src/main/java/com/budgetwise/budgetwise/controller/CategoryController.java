@@ -0,0 +1,41 @@
+package com.budgetwise.budgetwise.controller;
+
+import com.budgetwise.budgetwise.entity.Category;
+import com.budgetwise.budgetwise.entity.User;
+import com.budgetwise.budgetwise.repository.UserRepository;
+import com.budgetwise.budgetwise.service.CategoryService;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/categories")
+public class CategoryController {
+
+    private final CategoryService service;
+    private final UserRepository userRepo;
+
+    public CategoryController(CategoryService service, UserRepository userRepo) {
+        this.service = service;
+        this.userRepo = userRepo;
+    }
+
+    // 🟢 The user's category dictionary
+    @GetMapping
+    public List<Category> list(Authentication auth) {
+        return service.list(currentUser(auth));
+    }
+
+    // 🟢 Make another spelling resolve to this category, e.g. {"alias": "groceries"}
+    @PostMapping("/{id}/aliases")
+    public Category addAlias(@PathVariable Integer id, @RequestBody Map<String, String> body, Authentication auth) {
+        return service.addAlias(currentUser(auth), id, body.get("alias"));
+    }
+
+    private User currentUser(Authentication auth) {
+        return userRepo.findByUsername(auth.getName()).orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
@@ -0,0 +1,25 @@
+package com.budgetwise.budgetwise.controller;
+
+import com.budgetwise.budgetwise.service.DashboardService;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+
+    private final DashboardService service;
+
+    public DashboardController(DashboardService service) {
+        this.service = service;
+    }
+
+    // Profile, totals, recent transactions, charts, budgets, goals and prediction in one call
+    @GetMapping
+    public Map<String, Object> snapshot(Authentication auth) {
+        return service.getSnapshot(auth.getName());
+    }
+}
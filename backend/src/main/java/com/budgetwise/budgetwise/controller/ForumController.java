@@ -2,6 +2,8 @@ package com.budgetwise.budgetwise.controller;
 
 import com.budgetwise.budgetwise.entity.*;
 import com.budgetwise.budgetwise.repository.*;
+import com.budgetwise.budgetwise.service.CacheInvalidationBus;
+import com.budgetwise.budgetwise.service.LiveEventService;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,11 +20,16 @@ public class ForumController {
     private final PostRepository postRepo;
     private final CommentRepository commentRepo;
     private final UserRepository userRepo;
+    private final CacheInvalidationBus invalidationBus;
+    private final LiveEventService liveEvents;
 
-    public ForumController(PostRepository postRepo, CommentRepository commentRepo, UserRepository userRepo) {
+    public ForumController(PostRepository postRepo, CommentRepository commentRepo, UserRepository userRepo,
+                           CacheInvalidationBus invalidationBus, LiveEventService liveEvents) {
         this.postRepo = postRepo;
         this.commentRepo = commentRepo;
         this.userRepo = userRepo;
+        this.invalidationBus = invalidationBus;
+        this.liveEvents = liveEvents;
     }
 
     // 📝 Create a new post
@@ -30,7 +37,12 @@ public class ForumController {
     public ResponseEntity<?> createPost(@RequestBody Post post, Principal principal) {
         User user = userRepo.findByUsername(principal.getName()).orElseThrow();
         post.setUser(user);
-        postRepo.save(post);
+        Post saved = postRepo.save(post);
+        invalidationBus.publish(CacheInvalidationBus.FORUM, "posts");
+        liveEvents.broadcast(LiveEventService.FORUM_POST, Map.of(
+                "id", saved.getId(),
+                "title", saved.getTitle() == null ? "" : saved.getTitle(),
+                "username", user.getUsername()));
         return ResponseEntity.ok("Post created");
     }
 
@@ -64,6 +76,7 @@ public class ForumController {
         comment.setUser(user);
 
         commentRepo.save(comment);
+        invalidationBus.publish(CacheInvalidationBus.FORUM, "posts");
 
         return ResponseEntity.ok("Comment added");
     }
@@ -74,6 +87,7 @@ public class ForumController {
         Post post = postRepo.findById(postId).orElseThrow();
         post.setLikesCount(post.getLikesCount() + 1);
         postRepo.save(post);
+        invalidationBus.publish(CacheInvalidationBus.FORUM, "posts");
 
         return ResponseEntity.ok(Map.of("likes", post.getLikesCount()));
     }
@@ -1,19 +1,29 @@
 package com.budgetwise.budgetwise.controller;
 
 import com.budgetwise.budgetwise.entity.Goal;
+import com.budgetwise.budgetwise.entity.GoalContribution;
+import com.budgetwise.budgetwise.service.GoalForecastService;
 import com.budgetwise.budgetwise.service.GoalService;
+import com.budgetwise.budgetwise.service.VersionConflictException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.Authentication;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @CrossOrigin(origins = "http://localhost:5173")
 @RestController
 @RequestMapping("/api/goals")
 public class GoalController {
     private final GoalService service;
+    private final GoalForecastService forecastService;
 
-    public GoalController(GoalService service) {
+    public GoalController(GoalService service, GoalForecastService forecastService) {
         this.service = service;
+        this.forecastService = forecastService;
     }
 
     @PostMapping
@@ -26,8 +36,52 @@ public class GoalController {
         return service.getGoals(auth.getName());
     }
 
+    // 🟢 Chance of reaching each goal by its deadline (Monte Carlo over the user's history)
+    @GetMapping("/forecast")
+    public Map<String, Object> forecast(@RequestParam(required = false) Integer paths,
+                                        @RequestParam(required = false) Long seed,
+                                        Authentication auth) {
+        return forecastService.forecast(auth.getName(), paths, seed);
+    }
+
+    // 🟢 Conditional on If-Match (or the body's "version"); 409 + current row when stale
+    @PutMapping("/{id}")
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Goal goal,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                    Authentication auth) {
+        try {
+            Goal saved = service.updateGoal(id, goal, IfMatch.version(ifMatch, goal.getVersion()), auth.getName());
+            return ResponseEntity.ok().eTag(IfMatch.etag(saved.getVersion())).body(saved);
+        } catch (VersionConflictException ex) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("error", ex.getMessage());
+            body.put("current", ex.getCurrent());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+        }
+    }
+
     @DeleteMapping("/{id}")
-    public void delete(@PathVariable Long id) {
-        service.deleteGoal(id);
+    public void delete(@PathVariable Long id, Authentication auth) {
+        service.deleteGoal(id, auth.getName());
+    }
+
+    // 🟢 Contribution ledger: the only way savedAmount changes after creation
+    @GetMapping("/{id}/contributions")
+    public Map<String, Object> contributions(@PathVariable Long id,
+                                             @RequestParam(defaultValue = "0") int page,
+                                             @RequestParam(defaultValue = "20") int size,
+                                             Authentication auth) {
+        return service.getContributions(id, auth.getName(), page, size);
+    }
+
+    @PostMapping("/{id}/contributions")
+    public GoalContribution contribute(@PathVariable Long id, @RequestBody GoalContribution contribution,
+                                       Authentication auth) {
+        return service.contribute(id, contribution, auth.getName());
+    }
+
+    @DeleteMapping("/{id}/contributions/{contributionId}")
+    public void removeContribution(@PathVariable Long id, @PathVariable Long contributionId, Authentication auth) {
+        service.removeContribution(id, contributionId, auth.getName());
     }
 }
@@ -0,0 +1,26 @@
+package com.budgetwise.budgetwise.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// Expected row version from an If-Match header ("3", W/"3") or, failing that, the body's "version"
+final class IfMatch {
+
+    private IfMatch() {}
+
+    static Long version(String header, Long bodyVersion) {
+        if (header == null || header.isBlank() || "*".equals(header.trim())) return bodyVersion;
+        String v = header.trim();
+        if (v.startsWith("W/")) v = v.substring(2);
+        v = v.replace("\"", "");
+        try {
+            return Long.parseLong(v);
+        } catch (NumberFormatException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "If-Match must be a record version");
+        }
+    }
+
+    static String etag(Long version) {
+        return "\"" + version + "\"";
+    }
+}
@@ -4,10 +4,13 @@ import com.budgetwise.budgetwise.entity.PasswordResetToken;
 import com.budgetwise.budgetwise.entity.User;
 import com.budgetwise.budgetwise.repository.PasswordResetTokenRepository;
 import com.budgetwise.budgetwise.repository.UserRepository;
+import com.budgetwise.budgetwise.service.AuthThrottleService;
+import com.budgetwise.budgetwise.service.CacheInvalidationBus;
 import com.budgetwise.budgetwise.service.EmailService;
+import com.budgetwise.budgetwise.service.PasswordHashingService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -21,7 +24,9 @@ public class PasswordResetController {
     private final UserRepository userRepo;
     private final PasswordResetTokenRepository tokenRepo;
     private final EmailService emailService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService hashing;
+    private final AuthThrottleService throttle;
+    private final CacheInvalidationBus invalidationBus;
 
     @Value("${app.frontend.base-url}")
     private String frontendBaseUrl;
@@ -29,18 +34,23 @@ public class PasswordResetController {
     public PasswordResetController(UserRepository userRepo,
                                    PasswordResetTokenRepository tokenRepo,
                                    EmailService emailService,
-                                   PasswordEncoder passwordEncoder) {
+                                   PasswordHashingService hashing,
+                                   AuthThrottleService throttle,
+                                   CacheInvalidationBus invalidationBus) {
         this.userRepo = userRepo;
         this.tokenRepo = tokenRepo;
         this.emailService = emailService;
-        this.passwordEncoder = passwordEncoder;
+        this.hashing = hashing;
+        this.throttle = throttle;
+        this.invalidationBus = invalidationBus;
     }
 
     // ------------------------------
     // 1️⃣ SEND RESET LINK
     // ------------------------------
     @PostMapping("/forgot-password")
-    public ResponseEntity<?> forgotPassword(@RequestBody Map<String, String> body) {
+    public ResponseEntity<?> forgotPassword(@RequestBody Map<String, String> body, HttpServletRequest request) {
+        throttle.checkIp(request);
 
         String email = body.get("email");
         if (email == null || email.isBlank()) {
@@ -105,7 +115,8 @@ public class PasswordResetController {
     // 2️⃣ RESET PASSWORD
     // ------------------------------
     @PostMapping("/reset-password")
-    public ResponseEntity<?> resetPassword(@RequestBody Map<String, String> body) {
+    public ResponseEntity<?> resetPassword(@RequestBody Map<String, String> body, HttpServletRequest request) {
+        throttle.checkIp(request);
 
         String token = body.get("token");
         String newPassword = body.get("newPassword");
@@ -130,8 +141,9 @@ public class PasswordResetController {
 
         // Update password
         User user = prt.getUser();
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(hashing.encode(newPassword));
         userRepo.save(user);
+        invalidationBus.publish(CacheInvalidationBus.USER, user.getId());
 
         // Remove used token
         tokenRepo.delete(prt);
@@ -17,13 +17,13 @@ import com.lowagie.text.pdf.PdfPTable;
 
 import jakarta.servlet.http.HttpServletResponse;
 
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
 import java.security.Principal;
 import java.time.YearMonth;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -49,6 +49,7 @@ public class ReportController {
     // 1️⃣ EXPORT PDF — FULL FINANCIAL REPORT
     // =========================================================================
     @GetMapping("/export-pdf")
+    @Transactional(readOnly = true)
     public void exportFullPDF(HttpServletResponse response, Principal principal) throws IOException {
 
         User user = userRepo.findByUsername(principal.getName()).orElseThrow();
@@ -57,7 +58,7 @@ public class ReportController {
         response.setHeader("Content-Disposition", "attachment; filename=budgetwise_full_report.pdf");
 
         // Fetch all user data
-        List<Transaction> txs = transactionRepo.findByUserUsername(user.getUsername());
+        List<TransactionView> txs = transactionRepo.findViewsByUsername(user.getUsername());
         List<Budget> budgets = budgetRepo.findByUserUsername(user.getUsername());
         List<Goal> goals = goalRepo.findByUserUsername(user.getUsername());
 
@@ -81,12 +82,14 @@ public class ReportController {
         document.add(new Paragraph("📊 Category-wise Expense Breakdown", 
                 FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16)));
 
-        Map<String, Double> categoryTotals = txs.stream()
-                .filter(t -> "EXPENSE".equals(t.getType()))
-                .collect(Collectors.groupingBy(
-                        Transaction::getCategory,
-                        Collectors.summingDouble(Transaction::getAmount)
-                ));
+        // Exact paise accumulators; Money prints without float noise
+        Map<String, long[]> categoryTotals = new HashMap<>();
+        for (TransactionView t : txs) {
+            if (t.type() == TransactionType.EXPENSE) {
+                long[] total = categoryTotals.computeIfAbsent(t.category(), c -> new long[1]);
+                total[0] = Math.addExact(total[0], minor(t.amount()));
+            }
+        }
 
         PdfPTable catTable = new PdfPTable(2);
         catTable.setWidthPercentage(100);
@@ -94,7 +97,7 @@ public class ReportController {
 
         categoryTotals.forEach((category, amount) -> {
             catTable.addCell(category);
-            catTable.addCell("₹" + amount);
+            catTable.addCell("₹" + Money.ofMinor(amount[0]));
         });
 
         document.add(catTable);
@@ -104,15 +107,14 @@ public class ReportController {
         document.add(new Paragraph("📅 Monthly Income vs Expense", 
                 FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16)));
 
-        Map<YearMonth, Double> incomeMap = new TreeMap<>();
-        Map<YearMonth, Double> expenseMap = new TreeMap<>();
+        Map<YearMonth, long[]> incomeMap = new TreeMap<>();
+        Map<YearMonth, long[]> expenseMap = new TreeMap<>();
 
-        for (Transaction t : txs) {
-            YearMonth ym = YearMonth.from(t.getDate());
-            if (t.getType().equals("INCOME"))
-                incomeMap.merge(ym, t.getAmount(), Double::sum);
-            else
-                expenseMap.merge(ym, t.getAmount(), Double::sum);
+        for (TransactionView t : txs) {
+            YearMonth ym = YearMonth.from(t.date());
+            long[] total = (t.type() == TransactionType.INCOME ? incomeMap : expenseMap)
+                    .computeIfAbsent(ym, k -> new long[1]);
+            total[0] = Math.addExact(total[0], minor(t.amount()));
         }
 
         PdfPTable monthTable = new PdfPTable(3);
@@ -121,8 +123,8 @@ public class ReportController {
 
         for (YearMonth ym : incomeMap.keySet()) {
             monthTable.addCell(ym.toString());
-            monthTable.addCell("₹" + incomeMap.getOrDefault(ym, 0.0));
-            monthTable.addCell("₹" + expenseMap.getOrDefault(ym, 0.0));
+            monthTable.addCell("₹" + Money.ofMinor(incomeMap.getOrDefault(ym, new long[1])[0]));
+            monthTable.addCell("₹" + Money.ofMinor(expenseMap.getOrDefault(ym, new long[1])[0]));
         }
 
         document.add(monthTable);
@@ -164,6 +166,10 @@ public class ReportController {
         document.close();
     }
 
+    private static long minor(Money amount) {
+        return amount == null ? 0 : amount.minor();
+    }
+
     // Utility method
     private void addTableHeader(PdfPTable table, String... headers) {
         for (String h : headers) {
@@ -177,6 +183,7 @@ public class ReportController {
     // 2️⃣ EXPORT CSV — FULL DATA
     // =========================================================================
     @GetMapping("/export-csv")
+    @Transactional(readOnly = true)
     public void exportFullCSV(HttpServletResponse response, Principal principal) throws IOException {
 
         User user = userRepo.findByUsername(principal.getName()).orElseThrow();
@@ -184,7 +191,7 @@ public class ReportController {
         response.setContentType("text/csv");
         response.setHeader("Content-Disposition", "attachment; filename=budgetwise_full_report.csv");
 
-        List<Transaction> txs = transactionRepo.findByUserUsername(user.getUsername());
+        List<TransactionView> txs = transactionRepo.findViewsByUsername(user.getUsername());
         List<Budget> budgets = budgetRepo.findByUserUsername(user.getUsername());
         List<Goal> goals = goalRepo.findByUserUsername(user.getUsername());
 
@@ -196,11 +203,11 @@ public class ReportController {
 
         txs.forEach(t ->
                 writer.writeNext(new String[]{
-                        t.getDate().toString(),
-                        t.getType(),
-                        t.getCategory(),
-                        String.valueOf(t.getAmount()),
-                        t.getDescription() == null ? "" : t.getDescription()
+                        t.date().toString(),
+                        String.valueOf(t.type()),
+                        t.category(),
+                        String.valueOf(t.amount()),
+                        t.description() == null ? "" : t.description()
                 })
         );
 
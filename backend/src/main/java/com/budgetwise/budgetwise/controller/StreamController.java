@@ -0,0 +1,37 @@
+package com.budgetwise.budgetwise.controller;
+
+import com.budgetwise.budgetwise.service.LiveEventService;
+import com.budgetwise.budgetwise.service.StreamTicketService;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/stream")
+public class StreamController {
+
+    private final LiveEventService liveEvents;
+    private final StreamTicketService streamTickets;
+
+    public StreamController(LiveEventService liveEvents, StreamTicketService streamTickets) {
+        this.liveEvents = liveEvents;
+        this.streamTickets = streamTickets;
+    }
+
+    // 🟢 One-time ticket for the stream below (valid for seconds, one connection)
+    @PostMapping("/ticket")
+    public Map<String, Object> ticket(Authentication auth) {
+        return streamTickets.issue(auth.getName());
+    }
+
+    // Live change events for the signed-in user. EventSource cannot send an
+    // Authorization header, so this path authenticates with ?ticket= instead.
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(Authentication auth) {
+        return liveEvents.subscribe(auth.getName());
+    }
+}
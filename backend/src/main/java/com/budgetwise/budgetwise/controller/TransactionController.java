@@ -1,12 +1,22 @@
 package com.budgetwise.budgetwise.controller;
 
+import com.budgetwise.budgetwise.entity.Money;
 import com.budgetwise.budgetwise.entity.Transaction;
+import com.budgetwise.budgetwise.entity.TransactionType;
+import com.budgetwise.budgetwise.repository.TransactionView;
+import com.budgetwise.budgetwise.service.IdempotencyService;
+import com.budgetwise.budgetwise.service.SpendingAnomalyService;
 import com.budgetwise.budgetwise.service.TransactionService;
+import com.budgetwise.budgetwise.service.VersionConflictException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.Authentication;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "http://localhost:5173")
@@ -15,27 +25,67 @@ import java.util.stream.Collectors;
 public class TransactionController {
 
     private final TransactionService service;
+    private final IdempotencyService idempotency;
+    private final SpendingAnomalyService anomalies;
 
-    public TransactionController(TransactionService service) {
+    public TransactionController(TransactionService service, IdempotencyService idempotency,
+                                 SpendingAnomalyService anomalies) {
         this.service = service;
+        this.idempotency = idempotency;
+        this.anomalies = anomalies;
     }
 
+    // 🟢 Retried with the same Idempotency-Key → the first response, no second insert
     @PostMapping
-    public Transaction create(@RequestBody Transaction tx, Authentication auth) {
-        return service.addTransaction(tx, auth.getName());
+    public ResponseEntity<?> create(@RequestBody Transaction tx,
+                                    @RequestHeader(value = IdempotencyService.HEADER, required = false) String key,
+                                    Authentication auth) {
+        return idempotency.execute(auth.getName(), key, "POST /api/transactions", tx,
+                () -> ResponseEntity.ok(service.addTransaction(tx, auth.getName())));
     }
 
-    // Keep method transactional so Hibernate session remains open during mapping
+    // 🟢 Bulk create (imports, offline sync): all rows or none
+    @PostMapping("/bulk")
+    public ResponseEntity<?> createMany(@RequestBody List<Transaction> txs,
+                                        @RequestHeader(value = IdempotencyService.HEADER, required = false) String key,
+                                        Authentication auth) {
+        return idempotency.execute(auth.getName(), key, "POST /api/transactions/bulk", txs,
+                () -> ResponseEntity.ok(service.addTransactions(txs, auth.getName())));
+    }
+
+    // Projection rows: the username comes from the caller, not from a User join
     @GetMapping
-    @Transactional(readOnly = true)
-    public List<TransactionDTO> list(Authentication auth) {
-        List<Transaction> txs = service.getTransactionsForUser(auth.getName());
-        return txs.stream().map(TransactionDTO::from).collect(Collectors.toList());
+    public List<TransactionDTO> list(@RequestParam(required = false) TransactionType type, Authentication auth) {
+        List<TransactionView> txs = type == null
+                ? service.getTransactionsForUser(auth.getName())
+                : service.getTransactionsForUser(auth.getName(), type);
+        return txs.stream().map(t -> TransactionDTO.from(t, auth.getName())).collect(Collectors.toList());
     }
 
+    // 🟢 Expenses flagged as unusual for their category when written, newest first
+    @GetMapping("/anomalies")
+    public Map<String, Object> anomalies(@RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(defaultValue = "20") int size,
+                                         Authentication auth) {
+        return anomalies.getAnomalies(auth.getName(), page, size);
+    }
+
+    // 🟢 Conditional on If-Match (or the body's "version"); 409 + current row when stale
     @PutMapping("/{id}")
-    public Transaction update(@PathVariable Long id, @RequestBody Transaction tx, Authentication auth) {
-        return service.updateTransaction(id, tx, auth.getName());
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Transaction tx,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                    Authentication auth) {
+        try {
+            Transaction saved = service.updateTransaction(id, tx, IfMatch.version(ifMatch, tx.getVersion()), auth.getName());
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+            if (saved.getVersion() != null) ok.eTag(IfMatch.etag(saved.getVersion()));
+            return ok.body(saved);
+        } catch (VersionConflictException ex) {
+            Map<String, Object> body = new HashMap<>();   // "current" is null if the row is gone
+            body.put("error", ex.getMessage());
+            body.put("current", ex.getCurrent());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -43,33 +93,36 @@ public class TransactionController {
         service.deleteTransaction(id, auth.getName());
     }
 
+    // 🟢 Multi-select delete: {"ids": [1, 2, 3]} → {"deleted": 3}
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<?> deleteMany(@RequestBody Map<String, List<Long>> body,
+                                        @RequestHeader(value = IdempotencyService.HEADER, required = false) String key,
+                                        Authentication auth) {
+        return idempotency.execute(auth.getName(), key, "POST /api/transactions/bulk-delete", body,
+                () -> ResponseEntity.ok(Map.of("deleted", service.deleteTransactions(body.get("ids"), auth.getName()))));
+    }
+
     // DTO class to send clean JSON (avoids sending full user)
     public static class TransactionDTO {
         public Long id;
-        public String type;
+        public TransactionType type;
         public String category;
-        public Double amount;
+        public Money amount;
         public String description;
         public String date;
         public String username;
+        public Long version;
 
-        public static TransactionDTO from(Transaction t) {
+        public static TransactionDTO from(TransactionView t, String username) {
             TransactionDTO d = new TransactionDTO();
-            d.id = t.getId();
-            d.type = t.getType();
-            d.category = t.getCategory();
-            d.amount = t.getAmount();
-            d.description = t.getDescription();
-            d.date = t.getDate() != null ? t.getDate().toString() : null;
-
-            // defensive: user can be null or cause problems, do safe retrieval
-            try {
-                d.username = (t.getUser() != null) ? t.getUser().getUsername() : null;
-            } catch (Exception ex) {
-                // If anything unexpectedly fails, fall back to null username
-                d.username = null;
-            }
-
+            d.id = t.id();
+            d.type = t.type();
+            d.category = t.category();
+            d.amount = t.amount();
+            d.description = t.description();
+            d.date = t.date() != null ? t.date().toString() : null;
+            d.username = username;
+            d.version = t.version();
             return d;
         }
     }
@@ -2,19 +2,63 @@ package com.budgetwise.budgetwise.entity;
 
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.LocalDate;
 
 @Entity
-@Table(name = "budgets")
+@Table(name = "budgets",
+        indexes = @Index(name = "idx_budgets_user_category", columnList = "user_id, category_id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_budgets_template_period",
+                columnNames = {"template_id", "period_start"}))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "budget")
 public class Budget {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Derived from periodStart on write; kept for older clients and displays
     private String month;
     private int year;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "period_type", length = 10)
+    private BudgetPeriod periodType;
+
+    @Column(name = "period_start")
+    private LocalDate periodStart;
+
+    @Column(name = "period_end")
+    private LocalDate periodEnd;   // inclusive
+
+    // Category as sent by the client; resolved to categoryRef on write
+    @Transient
     private String category;
-    private double limitAmount;
-    private double spentAmount;
+
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "category_id")
+    @JsonIgnore
+    private Category categoryRef;
+    @Column(name = "limit_amount_minor")
+    private Money limitAmount = Money.ZERO;
+
+    // Maintained in SQL by BudgetService (applySpending deltas, recomputeSpent);
+    // never written back from the entity, which may hold a stale copy
+    @Column(name = "spent_amount_minor", updatable = false)
+    private Money spentAmount = Money.ZERO;
+
+    // Highest utilization alert already sent (50/80/100), 0/null = none.
+    // Written only by BudgetAlertService's conditional updates.
+    @Column(name = "alert_level", insertable = false, updatable = false)
+    private Integer alertLevel;
+
+    // Set on rows generated by BudgetRolloverJob; one row per template and period
+    @Column(name = "template_id", updatable = false)
+    private Long templateId;
+
+    @Version
+    private Long version;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
@@ -31,14 +75,36 @@ public class Budget {
     public int getYear() { return year; }
     public void setYear(int year) { this.year = year; }
 
-    public String getCategory() { return category; }
+    public BudgetPeriod getPeriodType() { return periodType; }
+    public void setPeriodType(BudgetPeriod periodType) { this.periodType = periodType; }
+
+    public LocalDate getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDate periodStart) { this.periodStart = periodStart; }
+
+    public LocalDate getPeriodEnd() { return periodEnd; }
+    public void setPeriodEnd(LocalDate periodEnd) { this.periodEnd = periodEnd; }
+
+    public String getCategory() { return categoryRef != null ? categoryRef.getName() : category; }
     public void setCategory(String category) { this.category = category; }
 
-    public double getLimitAmount() { return limitAmount; }
-    public void setLimitAmount(double limitAmount) { this.limitAmount = limitAmount; }
+    public Category getCategoryRef() { return categoryRef; }
+    public void setCategoryRef(Category categoryRef) {
+        this.categoryRef = categoryRef;
+        this.category = categoryRef != null ? categoryRef.getName() : null;
+    }
+
+    public Money getLimitAmount() { return limitAmount; }
+    public void setLimitAmount(Money limitAmount) { this.limitAmount = limitAmount == null ? Money.ZERO : limitAmount; }
+
+    public Money getSpentAmount() { return spentAmount; }
+    public void setSpentAmount(Money spentAmount) { this.spentAmount = spentAmount == null ? Money.ZERO : spentAmount; }
+
+    public int getAlertLevel() { return alertLevel == null ? 0 : alertLevel; }
+
+    public Long getTemplateId() { return templateId; }
 
-    public double getSpentAmount() { return spentAmount; }
-    public void setSpentAmount(double spentAmount) { this.spentAmount = spentAmount; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
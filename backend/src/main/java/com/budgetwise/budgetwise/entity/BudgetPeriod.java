@@ -0,0 +1,47 @@
+package com.budgetwise.budgetwise.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+// How a budget's [periodStart, periodEnd] range is chosen
+public enum BudgetPeriod {
+    MONTHLY,   // a calendar month
+    WEEKLY,    // Monday to Sunday
+    CUSTOM;    // any inclusive date range
+
+    @JsonCreator
+    public static BudgetPeriod from(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Budget period must be MONTHLY, WEEKLY or CUSTOM");
+        }
+    }
+
+    // First day of the MONTHLY / WEEKLY period that contains day
+    public LocalDate startOf(LocalDate day) {
+        return switch (this) {
+            case MONTHLY -> day.withDayOfMonth(1);
+            case WEEKLY -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case CUSTOM -> throw new IllegalStateException("CUSTOM periods have no fixed length");
+        };
+    }
+
+    // Inclusive last day of the period starting at start
+    public LocalDate endOf(LocalDate start) {
+        return next(start).minusDays(1);
+    }
+
+    public LocalDate next(LocalDate start) {
+        return this == MONTHLY ? start.plusMonths(1) : start.plusWeeks(1);
+    }
+
+    public LocalDate previous(LocalDate start) {
+        return this == MONTHLY ? start.minusMonths(1) : start.minusWeeks(1);
+    }
+}
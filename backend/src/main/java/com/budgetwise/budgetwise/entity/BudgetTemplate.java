@@ -0,0 +1,78 @@
+package com.budgetwise.budgetwise.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+// A budget the user wants every period; BudgetRolloverJob turns it into Budget rows
+@Entity
+@Table(name = "budget_templates",
+        uniqueConstraints = @UniqueConstraint(name = "uk_budget_templates_user_category_period",
+                columnNames = {"user_id", "category_id", "period_type"}))
+public class BudgetTemplate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Category as sent by the client; resolved to categoryRef on write
+    @Transient
+    private String category;
+
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "category_id", nullable = false)
+    @JsonIgnore
+    private Category categoryRef;
+
+    @Column(name = "limit_amount_minor", nullable = false)
+    private Money limitAmount = Money.ZERO;
+
+    // MONTHLY or WEEKLY
+    @Enumerated(EnumType.STRING)
+    @Column(name = "period_type", length = 10, nullable = false)
+    private BudgetPeriod periodType = BudgetPeriod.MONTHLY;
+
+    // Add what was left of the previous period's budget to the new limit
+    @Column(name = "carry_over", nullable = false)
+    private boolean carryOver;
+
+    @Column(nullable = false)
+    private boolean active = true;
+
+    @Version
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    // Getters & Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getCategory() { return categoryRef != null ? categoryRef.getName() : category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public Category getCategoryRef() { return categoryRef; }
+    public void setCategoryRef(Category categoryRef) {
+        this.categoryRef = categoryRef;
+        this.category = categoryRef != null ? categoryRef.getName() : null;
+    }
+
+    public Money getLimitAmount() { return limitAmount; }
+    public void setLimitAmount(Money limitAmount) { this.limitAmount = limitAmount == null ? Money.ZERO : limitAmount; }
+
+    public BudgetPeriod getPeriodType() { return periodType; }
+    public void setPeriodType(BudgetPeriod periodType) { this.periodType = periodType; }
+
+    public boolean isCarryOver() { return carryOver; }
+    public void setCarryOver(boolean carryOver) { this.carryOver = carryOver; }
+
+    public boolean isActive() { return active; }
+    public void setActive(boolean active) { this.active = active; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+}
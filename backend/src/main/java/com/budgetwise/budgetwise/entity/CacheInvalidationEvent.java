@@ -0,0 +1,50 @@
+package com.budgetwise.budgetwise.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// One row per write that other nodes must evict from their in-memory caches
+@Entity
+@Table(name = "cache_invalidation_log",
+        indexes = @Index(name = "idx_cache_invalidation_created", columnList = "createdAt"))
+public class CacheInvalidationEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 36)
+    private String nodeId;
+
+    @Column(nullable = false, length = 32)
+    private String region;
+
+    @Column(nullable = false, length = 191)
+    private String cacheKey;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public CacheInvalidationEvent() {}
+
+    public CacheInvalidationEvent(String nodeId, String region, String cacheKey) {
+        this.nodeId = nodeId;
+        this.region = region;
+        this.cacheKey = cacheKey;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getNodeId() { return nodeId; }
+    public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+
+    public String getRegion() { return region; }
+    public void setRegion(String region) { this.region = region; }
+
+    public String getCacheKey() { return cacheKey; }
+    public void setCacheKey(String cacheKey) { this.cacheKey = cacheKey; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
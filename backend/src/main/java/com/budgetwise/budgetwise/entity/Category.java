@@ -0,0 +1,69 @@
+package com.budgetwise.budgetwise.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Per-user category dictionary; transactions and budgets point here by id
+@Entity
+@Table(name = "categories",
+        uniqueConstraints = @UniqueConstraint(name = "uk_category_user_key", columnNames = {"user_id", "name_key"}))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category")
+public class Category {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    // Display name, as first entered (or the most used spelling when migrated)
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    // Trimmed, single-spaced, lower-case: what lookups match on
+    @Column(name = "name_key", nullable = false, length = 100)
+    private String nameKey;
+
+    // Other keys that resolve to this category (e.g. "groceries" → Food)
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "category_aliases",
+            joinColumns = @JoinColumn(name = "category_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_category_alias", columnNames = {"category_id", "alias_key"}))
+    @Column(name = "alias_key", length = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category")
+    private Set<String> aliases = new HashSet<>();
+
+    @Version
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    public static String keyOf(String name) {
+        return name == null ? "" : name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // Getters & Setters
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getNameKey() { return nameKey; }
+    public void setNameKey(String nameKey) { this.nameKey = nameKey; }
+
+    public Set<String> getAliases() { return aliases; }
+    public void setAliases(Set<String> aliases) { this.aliases = aliases; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+}
@@ -0,0 +1,43 @@
+package com.budgetwise.budgetwise.entity;
+
+import jakarta.persistence.*;
+
+// Running statistics of one user's expense amounts in one category, in log
+// space: count, mean and M2 (sum of squared deviations) as in Welford's
+// algorithm. Written only by SpendingAnomalyService's merge upsert.
+@Entity
+@Table(name = "category_spend_stats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_category_spend_stats",
+                columnNames = {"user_id", "category_id"}))
+public class CategorySpendStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // 0 for uncategorised expenses
+    @Column(name = "category_id", nullable = false)
+    private Integer categoryId;
+
+    @Column(nullable = false)
+    private long n;
+
+    // of ln(amount in minor units)
+    @Column(nullable = false)
+    private double mean;
+
+    @Column(nullable = false)
+    private double m2;
+
+    public CategorySpendStats() {}
+
+    public Long getId() { return id; }
+    public Long getUserId() { return userId; }
+    public Integer getCategoryId() { return categoryId; }
+    public long getN() { return n; }
+    public double getMean() { return mean; }
+    public double getM2() { return m2; }
+}
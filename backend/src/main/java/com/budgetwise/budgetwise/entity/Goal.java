@@ -2,20 +2,31 @@ package com.budgetwise.budgetwise.entity;
 
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 
 @Entity
 @Table(name = "goals")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "goal")
 public class Goal {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     private String goalName;
-    private double targetAmount;
-    private double savedAmount;
+    @Column(name = "target_amount_minor")
+    private Money targetAmount = Money.ZERO;
+
+    // Sum of the goal's contributions. Moved only by GoalService's relative
+    // UPDATEs, never by saving the entity, so an edit cannot undo a contribution.
+    @Column(name = "saved_amount_minor", updatable = false)
+    private Money savedAmount = Money.ZERO;
     private LocalDate deadline;
 
+    @Version
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonIgnore
@@ -28,15 +39,18 @@ public class Goal {
     public String getGoalName() { return goalName; }
     public void setGoalName(String goalName) { this.goalName = goalName; }
 
-    public double getTargetAmount() { return targetAmount; }
-    public void setTargetAmount(double targetAmount) { this.targetAmount = targetAmount; }
+    public Money getTargetAmount() { return targetAmount; }
+    public void setTargetAmount(Money targetAmount) { this.targetAmount = targetAmount == null ? Money.ZERO : targetAmount; }
 
-    public double getSavedAmount() { return savedAmount; }
-    public void setSavedAmount(double savedAmount) { this.savedAmount = savedAmount; }
+    public Money getSavedAmount() { return savedAmount; }
+    public void setSavedAmount(Money savedAmount) { this.savedAmount = savedAmount == null ? Money.ZERO : savedAmount; }
 
     public LocalDate getDeadline() { return deadline; }
     public void setDeadline(LocalDate deadline) { this.deadline = deadline; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
 }
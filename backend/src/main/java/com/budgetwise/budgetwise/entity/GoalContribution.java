@@ -0,0 +1,62 @@
+package com.budgetwise.budgetwise.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One movement of money into (positive) or out of (negative) a goal. The
+// goal's saved amount is the running sum of these, kept by GoalService.
+@Entity
+@Table(name = "goal_contributions",
+        indexes = @Index(name = "idx_goal_contributions_goal", columnList = "goal_id, id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_goal_contributions_transaction",
+                columnNames = "transaction_id"))
+public class GoalContribution {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "goal_id", updatable = false)
+    @JsonIgnore
+    private Goal goal;
+
+    @Column(name = "amount_minor", nullable = false, updatable = false)
+    private Money amount;
+
+    private String note;
+
+    @Column(name = "contributed_on")
+    private LocalDate date;
+
+    // Optional link to the transaction that moved the money; at most one contribution each
+    @Column(name = "transaction_id", updatable = false)
+    private Long transactionId;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Getters & Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getGoalId() { return goal != null ? goal.getId() : null; }
+
+    public Goal getGoal() { return goal; }
+    public void setGoal(Goal goal) { this.goal = goal; }
+
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
+
+    public String getNote() { return note; }
+    public void setNote(String note) { this.note = note; }
+
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+
+    public Long getTransactionId() { return transactionId; }
+    public void setTransactionId(Long transactionId) { this.transactionId = transactionId; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,69 @@
+package com.budgetwise.budgetwise.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// First response to a client-supplied Idempotency-Key, replayed for retries until it expires
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_user_key", columnNames = {"username", "idempotencyKey"}),
+        indexes = @Index(name = "idx_idempotency_expires", columnList = "expiresAt"))
+public class IdempotencyRecord {
+
+    public static final int IN_PROGRESS = 0;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 191)
+    private String username;
+
+    @Column(nullable = false, length = 100)
+    private String idempotencyKey;
+
+    // SHA-256 of method + path + body: the same key with a different request is rejected
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    // HTTP status of the stored response; IN_PROGRESS while the first attempt runs
+    @Column(nullable = false)
+    private int status = IN_PROGRESS;
+
+    @Lob
+    @Column(columnDefinition = "MEDIUMTEXT")
+    private String responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    public IdempotencyRecord() {}
+
+    public IdempotencyRecord(String username, String idempotencyKey, String requestHash, LocalDateTime expiresAt) {
+        this.username = username;
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+
+    public String getRequestHash() { return requestHash; }
+    public void setRequestHash(String requestHash) { this.requestHash = requestHash; }
+
+    public int getStatus() { return status; }
+    public void setStatus(int status) { this.status = status; }
+
+    public String getResponseBody() { return responseBody; }
+    public void setResponseBody(String responseBody) { this.responseBody = responseBody; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,51 @@
+package com.budgetwise.budgetwise.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Lease for a cluster-wide job plus how far its current run got, so a
+// restarted (or different) node resumes instead of starting over
+@Entity
+@Table(name = "job_locks")
+public class JobLock {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    // Node id of the holder; the lease is free once lockedUntil has passed
+    @Column(length = 64)
+    private String owner;
+
+    private LocalDateTime lockedUntil;
+
+    // Which run the cursor belongs to (for the rollover job: the target date)
+    @Column(length = 32)
+    private String runKey;
+
+    // Last id completed in that run
+    @Column(name = "cursor_id")
+    private Long cursor;
+
+    private LocalDateTime finishedAt;
+
+    public JobLock() {}
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public LocalDateTime getLockedUntil() { return lockedUntil; }
+    public void setLockedUntil(LocalDateTime lockedUntil) { this.lockedUntil = lockedUntil; }
+
+    public String getRunKey() { return runKey; }
+    public void setRunKey(String runKey) { this.runKey = runKey; }
+
+    public Long getCursor() { return cursor; }
+    public void setCursor(Long cursor) { this.cursor = cursor; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -0,0 +1,19 @@
+package com.budgetwise.budgetwise.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Money ↔ BIGINT paise for every Money attribute
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Money money) {
+        return money == null ? null : money.minor();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(Long minor) {
+        return minor == null ? null : Money.ofMinor(minor);
+    }
+}
@@ -0,0 +1,33 @@
+package com.budgetwise.budgetwise.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// One-time credential for opening GET /api/stream; only its SHA-256 is stored
+@Entity
+@Table(name = "stream_tickets",
+        indexes = @Index(name = "idx_stream_tickets_expires", columnList = "expiresAt"))
+public class StreamTicket {
+
+    @Id
+    @Column(length = 64)
+    private String ticketHash;
+
+    @Column(nullable = false, length = 191)
+    private String username;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    public StreamTicket() {}
+
+    public StreamTicket(String ticketHash, String username, LocalDateTime expiresAt) {
+        this.ticketHash = ticketHash;
+        this.username = username;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getTicketHash() { return ticketHash; }
+    public String getUsername() { return username; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+}
@@ -5,21 +5,38 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions",
+        indexes = {
+                @Index(name = "idx_transactions_user_category", columnList = "user_id, category_id"),
+                @Index(name = "idx_transactions_user_type_date", columnList = "user_id, type_code, date")
+        })
 public class Transaction {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    private String type; // "INCOME" or "EXPENSE"
+    @Column(name = "type_code")
+    private TransactionType type;
+
+    // Category as sent by the client; resolved to categoryRef on write
+    @Transient
     private String category;
-    private Double amount;
+
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "category_id")
+    @JsonIgnore
+    private Category categoryRef;
+    @Column(name = "amount_minor")
+    private Money amount;
     private String description;
     private LocalDate date;
 
-    // Changed to EAGER to ensure user is available when mapping to DTO outside session
-    @ManyToOne(fetch = FetchType.EAGER)
+    @Version
+    private Long version;
+
+    // Read paths use TransactionView projections and never touch the user
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonIgnore
     private User user;
@@ -33,27 +50,36 @@ public class Transaction {
         this.id = id;
     }
 
-    public String getType() {
+    public TransactionType getType() {
         return type;
     }
 
-    public void setType(String type) {
+    public void setType(TransactionType type) {
         this.type = type;
     }
 
     public String getCategory() {
-        return category;
+        return categoryRef != null ? categoryRef.getName() : category;
     }
 
     public void setCategory(String category) {
         this.category = category;
     }
 
-    public Double getAmount() {
+    public Category getCategoryRef() {
+        return categoryRef;
+    }
+
+    public void setCategoryRef(Category categoryRef) {
+        this.categoryRef = categoryRef;
+        this.category = categoryRef != null ? categoryRef.getName() : null;
+    }
+
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(Double amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -73,6 +99,14 @@ public class Transaction {
         this.date = date;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public User getUser() {
         return user;
     }
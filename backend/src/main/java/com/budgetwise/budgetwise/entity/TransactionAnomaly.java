@@ -0,0 +1,70 @@
+package com.budgetwise.budgetwise.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// An expense flagged as unusual for its category when it was written
+@Entity
+@Table(name = "transaction_anomalies",
+        indexes = @Index(name = "idx_transaction_anomalies_user", columnList = "user_id, id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_transaction_anomalies_transaction",
+                columnNames = "transaction_id"))
+public class TransactionAnomaly {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", updatable = false)
+    @JsonIgnore
+    private User user;
+
+    @Column(name = "transaction_id", nullable = false, updatable = false)
+    private Long transactionId;
+
+    // Category name as it was at the time
+    @Column(length = 100)
+    private String category;
+
+    @Column(name = "amount_minor", nullable = false)
+    private Money amount;
+
+    // What the user usually spends there (geometric mean of earlier expenses)
+    @Column(name = "typical_minor", nullable = false)
+    private Money typical;
+
+    // Standard deviations above the category's mean, in log space
+    @Column(nullable = false)
+    private double score;
+
+    private LocalDate date;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime detectedAt = LocalDateTime.now();
+
+    public TransactionAnomaly() {}
+
+    public TransactionAnomaly(User user, Long transactionId, String category, Money amount, Money typical,
+                              double score, LocalDate date) {
+        this.user = user;
+        this.transactionId = transactionId;
+        this.category = category;
+        this.amount = amount;
+        this.typical = typical;
+        this.score = score;
+        this.date = date;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public User getUser() { return user; }
+    public Long getTransactionId() { return transactionId; }
+    public String getCategory() { return category; }
+    public Money getAmount() { return amount; }
+    public Money getTypical() { return typical; }
+    public double getScore() { return score; }
+    public LocalDate getDate() { return date; }
+    public LocalDateTime getDetectedAt() { return detectedAt; }
+}
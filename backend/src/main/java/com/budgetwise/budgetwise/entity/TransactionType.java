@@ -0,0 +1,37 @@
+package com.budgetwise.budgetwise.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.Locale;
+
+// Stored as a TINYINT code (TransactionTypeConverter), written to JSON by name
+public enum TransactionType {
+    INCOME(1),
+    EXPENSE(2);
+
+    private final byte code;
+
+    TransactionType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte code() { return code; }
+
+    public static TransactionType fromCode(byte code) {
+        for (TransactionType t : values()) {
+            if (t.code == code) return t;
+        }
+        throw new IllegalArgumentException("Unknown transaction type code: " + code);
+    }
+
+    // "expense", " Income " etc. from older clients
+    @JsonCreator
+    public static TransactionType from(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Transaction type must be INCOME or EXPENSE");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.budgetwise.budgetwise.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// TransactionType ↔ TINYINT code; codes are fixed, so reordering the enum is safe
+@Converter(autoApply = true)
+public class TransactionTypeConverter implements AttributeConverter<TransactionType, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(TransactionType type) {
+        return type == null ? null : type.code();
+    }
+
+    @Override
+    public TransactionType convertToEntityAttribute(Byte code) {
+        return code == null ? null : TransactionType.fromCode(code);
+    }
+}
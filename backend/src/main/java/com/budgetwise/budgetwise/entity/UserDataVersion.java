@@ -0,0 +1,29 @@
+package com.budgetwise.budgetwise.entity;
+
+import jakarta.persistence.*;
+
+// Monotonic counter bumped by every write to a user's transactions, budgets or goals
+@Entity
+@Table(name = "user_data_versions")
+public class UserDataVersion {
+
+    @Id
+    @Column(length = 191)
+    private String username;
+
+    @Column(nullable = false)
+    private long version;
+
+    public UserDataVersion() {}
+
+    public UserDataVersion(String username, long version) {
+        this.username = username;
+        this.version = version;
+    }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+}
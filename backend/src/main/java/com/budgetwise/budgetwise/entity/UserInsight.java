@@ -0,0 +1,54 @@
+package com.budgetwise.budgetwise.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Precomputed prediction and insights for one user (InsightBatchJob), valid
+// while the user's data version and the month still match
+@Entity
+@Table(name = "user_insights")
+public class UserInsight {
+
+    @Id
+    @Column(length = 191)
+    private String username;
+
+    // user_data_versions.version the payload was computed from
+    @Column(nullable = false)
+    private long dataVersion;
+
+    // Month it was computed in ("2025-06"); next month's forecast changes when this does
+    @Column(nullable = false, length = 7)
+    private String computedFor;
+
+    // Next month's expense forecast, for the chatbot without parsing the payload
+    @Column(name = "next_month_minor")
+    private Long nextMonthMinor;
+
+    // The /api/ai/insights response as JSON
+    @Column(nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime computedAt;
+
+    public UserInsight() {}
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public long getDataVersion() { return dataVersion; }
+    public void setDataVersion(long dataVersion) { this.dataVersion = dataVersion; }
+
+    public String getComputedFor() { return computedFor; }
+    public void setComputedFor(String computedFor) { this.computedFor = computedFor; }
+
+    public Long getNextMonthMinor() { return nextMonthMinor; }
+    public void setNextMonthMinor(Long nextMonthMinor) { this.nextMonthMinor = nextMonthMinor; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public LocalDateTime getComputedAt() { return computedAt; }
+    public void setComputedAt(LocalDateTime computedAt) { this.computedAt = computedAt; }
+}
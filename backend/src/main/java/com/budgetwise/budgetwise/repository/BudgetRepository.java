@@ -2,12 +2,41 @@ package com.budgetwise.budgetwise.repository;
 
 import com.budgetwise.budgetwise.entity.Budget;
 import com.budgetwise.budgetwise.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Optional;
 
 public interface BudgetRepository extends JpaRepository<Budget, Long> {
+    // Per-user lists are small and rarely change → served from the query cache
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "budget-lists")
+    })
     List<Budget> findByUserUsername(String username);
-    
+
+    Optional<Budget> findByIdAndUserUsername(Long id, String username);
+
+    // 🟢 Alert de-duplication across nodes: only the update that moves the level wins
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE Budget b SET b.alertLevel = :level
+        WHERE b.id = :id AND (b.alertLevel IS NULL OR b.alertLevel < :level)
+    """)
+    int raiseAlertLevel(@Param("id") Long id, @Param("level") int level);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Budget b SET b.alertLevel = :level WHERE b.id = :id AND b.alertLevel > :level")
+    int lowerAlertLevel(@Param("id") Long id, @Param("level") int level);
+
  // NEW → required for PDF/CSV report
     List<Budget> findByUser(User user);
 }
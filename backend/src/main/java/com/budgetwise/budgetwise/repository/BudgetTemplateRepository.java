@@ -0,0 +1,12 @@
+package com.budgetwise.budgetwise.repository;
+
+import com.budgetwise.budgetwise.entity.BudgetTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
+import java.util.Optional;
+
+public interface BudgetTemplateRepository extends JpaRepository<BudgetTemplate, Long> {
+    List<BudgetTemplate> findByUserUsernameOrderByIdAsc(String username);
+
+    Optional<BudgetTemplate> findByIdAndUserUsername(Long id, String username);
+}
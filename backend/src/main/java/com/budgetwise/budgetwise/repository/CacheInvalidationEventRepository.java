@@ -0,0 +1,31 @@
+package com.budgetwise.budgetwise.repository;
+
+import com.budgetwise.budgetwise.entity.CacheInvalidationEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface CacheInvalidationEventRepository extends JpaRepository<CacheInvalidationEvent, Long> {
+
+    // Past the cursor, plus a short look-back for ids that committed out of order
+    @Query("""
+        SELECT e FROM CacheInvalidationEvent e
+        WHERE e.id > :cursor OR e.createdAt >= :since
+        ORDER BY e.id
+    """)
+    List<CacheInvalidationEvent> findNewerThan(@Param("cursor") Long cursor,
+                                               @Param("since") LocalDateTime since);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM CacheInvalidationEvent e")
+    Long findMaxId();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CacheInvalidationEvent e WHERE e.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,26 @@
+package com.budgetwise.budgetwise.repository;
+
+import com.budgetwise.budgetwise.entity.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface CategoryRepository extends JpaRepository<Category, Integer> {
+
+    List<Category> findByUserIdOrderByName(Long userId);
+
+    // Canonical key first, then aliases
+    @Query("""
+        SELECT c.id FROM Category c
+        WHERE c.user.id = :userId AND (c.nameKey = :key OR :key MEMBER OF c.aliases)
+        ORDER BY CASE WHEN c.nameKey = :key THEN 0 ELSE 1 END
+    """)
+    List<Integer> findIdsByKey(@Param("userId") Long userId, @Param("key") String key);
+
+    default Optional<Integer> findIdByKey(Long userId, String key) {
+        return findIdsByKey(userId, key).stream().findFirst();
+    }
+}
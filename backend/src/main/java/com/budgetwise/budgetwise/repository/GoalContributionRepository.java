@@ -0,0 +1,22 @@
+package com.budgetwise.budgetwise.repository;
+
+import com.budgetwise.budgetwise.entity.GoalContribution;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Optional;
+
+public interface GoalContributionRepository extends JpaRepository<GoalContribution, Long> {
+    // History, newest first; (goal_id, id) index serves both the page and the count
+    Page<GoalContribution> findByGoalIdOrderByIdDesc(Long goalId, Pageable page);
+
+    Optional<GoalContribution> findByIdAndGoalId(Long id, Long goalId);
+
+    // Joins the caller's transaction (goal delete)
+    @Modifying
+    @Query("DELETE FROM GoalContribution c WHERE c.goal.id = :goalId")
+    int deleteByGoal(@Param("goalId") Long goalId);
+}
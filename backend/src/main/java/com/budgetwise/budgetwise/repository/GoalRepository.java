@@ -3,11 +3,22 @@ package com.budgetwise.budgetwise.repository;
 import com.budgetwise.budgetwise.entity.Goal;
 import com.budgetwise.budgetwise.entity.User;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.util.List;
+import java.util.Optional;
 
 public interface GoalRepository extends JpaRepository<Goal, Long> {
+    // Per-user lists are small and rarely change → served from the query cache
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "goal-lists")
+    })
     List<Goal> findByUserUsername(String username);
+
+    Optional<Goal> findByIdAndUserUsername(Long id, String username);
     
     // NEW → required for PDF/CSV report
     List<Goal> findByUser(User user);
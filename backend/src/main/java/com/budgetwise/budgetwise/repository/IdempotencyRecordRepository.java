@@ -0,0 +1,30 @@
+package com.budgetwise.budgetwise.repository;
+
+import com.budgetwise.budgetwise.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByUsernameAndIdempotencyKey(String username, String idempotencyKey);
+
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE IdempotencyRecord r SET r.status = :status, r.responseBody = :body
+        WHERE r.id = :id
+    """)
+    int complete(@Param("id") Long id, @Param("status") int status, @Param("body") String body);
+
+    // Bounded batch so the sweep never holds long locks on a big backlog
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM idempotency_keys WHERE expires_at < :cutoff LIMIT :batch", nativeQuery = true)
+    int deleteExpired(@Param("cutoff") LocalDateTime cutoff, @Param("batch") int batch);
+}
@@ -0,0 +1,43 @@
+package com.budgetwise.budgetwise.repository;
+
+import com.budgetwise.budgetwise.entity.JobLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+    // 🟢 Take the lease if it is free (or already ours): 1 = acquired, 0 = another node holds it
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE JobLock l SET l.owner = :owner, l.lockedUntil = :until
+        WHERE l.name = :name AND (l.lockedUntil IS NULL OR l.lockedUntil < :now OR l.owner = :owner)
+    """)
+    int acquire(@Param("name") String name, @Param("owner") String owner,
+                @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    // Joins the caller's transaction, so progress commits together with the chunk.
+    // 0 = the lease was lost and the chunk must roll back.
+    @Modifying
+    @Query("""
+        UPDATE JobLock l SET l.runKey = :runKey, l.cursor = :cursor, l.lockedUntil = :until
+        WHERE l.name = :name AND l.owner = :owner
+    """)
+    int advance(@Param("name") String name, @Param("owner") String owner, @Param("runKey") String runKey,
+                @Param("cursor") Long cursor, @Param("until") LocalDateTime until);
+
+    // finishedAt is null when the run stopped early; the cursor is kept either way
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE JobLock l SET l.lockedUntil = NULL, l.finishedAt = COALESCE(:finishedAt, l.finishedAt)
+        WHERE l.name = :name AND l.owner = :owner
+    """)
+    int release(@Param("name") String name, @Param("owner") String owner,
+                @Param("finishedAt") LocalDateTime finishedAt);
+}
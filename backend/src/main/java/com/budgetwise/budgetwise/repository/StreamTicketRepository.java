@@ -0,0 +1,24 @@
+package com.budgetwise.budgetwise.repository;
+
+import com.budgetwise.budgetwise.entity.StreamTicket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface StreamTicketRepository extends JpaRepository<StreamTicket, String> {
+
+    // 1 for exactly one caller per ticket, on any node
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StreamTicket t WHERE t.ticketHash = :hash AND t.expiresAt > :now")
+    int consume(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StreamTicket t WHERE t.expiresAt < :cutoff")
+    int deleteExpired(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,21 @@
+package com.budgetwise.budgetwise.repository;
+
+import com.budgetwise.budgetwise.entity.TransactionAnomaly;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+public interface TransactionAnomalyRepository extends JpaRepository<TransactionAnomaly, Long> {
+    // Newest first; (user_id, id) index serves both the page and the count
+    Page<TransactionAnomaly> findByUserUsernameOrderByIdDesc(String username, Pageable page);
+
+    // Joins the caller's transaction (transaction update / delete)
+    @Modifying
+    @Query("DELETE FROM TransactionAnomaly a WHERE a.user.id = :userId AND a.transactionId IN :transactionIds")
+    int deleteByTransactions(@Param("userId") Long userId, @Param("transactionIds") Collection<Long> transactionIds);
+}
@@ -1,15 +1,128 @@
 package com.budgetwise.budgetwise.repository;
 
+import com.budgetwise.budgetwise.entity.Category;
+import com.budgetwise.budgetwise.entity.Money;
 import com.budgetwise.budgetwise.entity.Transaction;
+import com.budgetwise.budgetwise.entity.TransactionType;
 import com.budgetwise.budgetwise.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 //Interacts with MySQL via JPA
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    List<Transaction> findByUserUsername(String username);
-    
+
+    // 🟢 Read paths: projections only
+    @Query("""
+        SELECT new com.budgetwise.budgetwise.repository.TransactionView(
+            t.id, t.type, c.id, c.name, t.amount, t.description, t.date, t.version)
+        FROM Transaction t LEFT JOIN t.categoryRef c
+        WHERE t.user.username = :username
+    """)
+    List<TransactionView> findViewsByUsername(@Param("username") String username);
+
+    // Served by idx_transactions_user_type_date
+    @Query("""
+        SELECT new com.budgetwise.budgetwise.repository.TransactionView(
+            t.id, t.type, c.id, c.name, t.amount, t.description, t.date, t.version)
+        FROM Transaction t LEFT JOIN t.categoryRef c
+        WHERE t.user.username = :username AND t.type = :type
+        ORDER BY t.date DESC
+    """)
+    List<TransactionView> findViewsByUsernameAndType(@Param("username") String username,
+                                                     @Param("type") TransactionType type);
+
+    // Dashboard "recent transactions"
+    @Query("""
+        SELECT new com.budgetwise.budgetwise.repository.TransactionView(
+            t.id, t.type, c.id, c.name, t.amount, t.description, t.date, t.version)
+        FROM Transaction t LEFT JOIN t.categoryRef c
+        WHERE t.user.username = :username
+        ORDER BY t.date DESC, t.id DESC
+    """)
+    List<TransactionView> findRecentViews(@Param("username") String username, Pageable page);
+
+    // Current state for a 409 response
+    @Query("""
+        SELECT new com.budgetwise.budgetwise.repository.TransactionView(
+            t.id, t.type, c.id, c.name, t.amount, t.description, t.date, t.version)
+        FROM Transaction t LEFT JOIN t.categoryRef c
+        WHERE t.id = :id AND t.user.id = :userId
+    """)
+    Optional<TransactionView> findOwnedView(@Param("id") Long id, @Param("userId") Long userId);
+
+    // 🟢 Write paths: one statement each, ownership (and the expected version,
+    // when given) in the WHERE clause. 0 rows = not found, not yours, or stale.
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE Transaction t
+        SET t.type = :type, t.categoryRef = :category, t.amount = :amount,
+            t.description = :description, t.date = :date, t.version = t.version + 1
+        WHERE t.id = :id AND t.user.id = :userId
+          AND (:version IS NULL OR t.version = :version)
+    """)
+    int updateOwned(@Param("id") Long id,
+                    @Param("userId") Long userId,
+                    @Param("version") Long version,
+                    @Param("type") TransactionType type,
+                    @Param("category") Category category,
+                    @Param("amount") Money amount,
+                    @Param("description") String description,
+                    @Param("date") LocalDate date);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Transaction t WHERE t.id = :id AND t.user.id = :userId")
+    int deleteOwned(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Transaction t WHERE t.id IN :ids AND t.user.id = :userId")
+    int deleteAllOwned(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    // Rows about to be changed, locked until the surrounding transaction ends.
+    // Only the fields budget spent tracking and the update's new version need are filled in.
+    @Query(value = """
+        SELECT id, category_id, type_code, amount_minor, date, version
+        FROM transactions
+        WHERE id IN (:ids) AND user_id = :userId
+        FOR UPDATE
+    """, nativeQuery = true)
+    List<Object[]> lockOwnedRows(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    default List<TransactionView> lockOwned(Collection<Long> ids, Long userId) {
+        List<TransactionView> rows = new ArrayList<>();
+        for (Object[] r : lockOwnedRows(ids, userId)) {
+            rows.add(new TransactionView(
+                    ((Number) r[0]).longValue(),
+                    r[2] == null ? null : TransactionType.fromCode(((Number) r[2]).byteValue()),
+                    r[1] == null ? null : ((Number) r[1]).intValue(),
+                    null,
+                    r[3] == null ? null : Money.ofMinor(((Number) r[3]).longValue()),
+                    null,
+                    r[4] instanceof java.sql.Date d ? d.toLocalDate() : (LocalDate) r[4],
+                    r[5] == null ? null : ((Number) r[5]).longValue()));
+        }
+        return rows;
+    }
+
+    // Analytics snapshot high-water mark / rows added after it
+    @Query("SELECT COALESCE(MAX(t.id), 0) FROM Transaction t")
+    Long findMaxId();
+
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.user WHERE t.id > :id")
+    List<Transaction> findWithUserByIdGreaterThan(@Param("id") Long id);
+
     // ✅ For ReportController (PDF/CSV Export)
     List<Transaction> findByUser(User user);
 }
-
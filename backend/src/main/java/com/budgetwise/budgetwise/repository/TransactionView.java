@@ -0,0 +1,18 @@
+package com.budgetwise.budgetwise.repository;
+
+import com.budgetwise.budgetwise.entity.Money;
+import com.budgetwise.budgetwise.entity.TransactionType;
+
+import java.time.LocalDate;
+
+// Read-only transaction row for listings, exports and analytics: selected
+// column by column, so no User join, no managed entity, no dirty-check snapshot
+public record TransactionView(Long id,
+                              TransactionType type,
+                              Integer categoryId,
+                              String category,
+                              Money amount,
+                              String description,
+                              LocalDate date,
+                              Long version) {
+}
@@ -0,0 +1,17 @@
+package com.budgetwise.budgetwise.repository;
+
+import com.budgetwise.budgetwise.entity.UserDataVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface UserDataVersionRepository extends JpaRepository<UserDataVersion, String> {
+
+    // Atomic in the database, so concurrent writers on any node never lose a bump
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserDataVersion v SET v.version = v.version + 1 WHERE v.username = :username")
+    int increment(@Param("username") String username);
+}
@@ -0,0 +1,8 @@
+package com.budgetwise.budgetwise.repository;
+
+import com.budgetwise.budgetwise.entity.UserInsight;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+// Written only through InsightService.UPSERT (JDBC batches); read here
+public interface UserInsightRepository extends JpaRepository<UserInsight, String> {
+}
@@ -0,0 +1,11 @@
+package com.budgetwise.budgetwise.repository;
+
+import com.budgetwise.budgetwise.entity.User;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    // Resolved via Hibernate's natural-id API so repeat lookups are served
+    // from the second-level cache instead of a SELECT ... WHERE username = ?
+    Optional<User> findByUsername(String username);
+}
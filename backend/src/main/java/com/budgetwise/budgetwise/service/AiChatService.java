@@ -1,7 +1,7 @@
 package com.budgetwise.budgetwise.service;
 
-import com.budgetwise.budgetwise.entity.Transaction;
-import com.budgetwise.budgetwise.repository.TransactionRepository;
+import com.budgetwise.budgetwise.entity.Money;
+import com.budgetwise.budgetwise.entity.TransactionAnomaly;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,12 +13,13 @@ import org.springframework.web.client.RestTemplate;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class AiChatService {
 
-    private final TransactionRepository txRepo;
+    private final TransactionColumnCache columnCache;
+    private final InsightService insightService;
+    private final SpendingAnomalyService anomalies;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -34,14 +35,16 @@ public class AiChatService {
     @Value("${openrouter.retry.initial-delay-ms:500}")
     private int initialDelayMs;
 
-    public AiChatService(TransactionRepository txRepo, RestTemplate restTemplate) {
-        this.txRepo = txRepo;
+    public AiChatService(TransactionColumnCache columnCache, InsightService insightService,
+                         SpendingAnomalyService anomalies, RestTemplate restTemplate) {
+        this.columnCache = columnCache;
+        this.insightService = insightService;
+        this.anomalies = anomalies;
         this.restTemplate = restTemplate;
     }
 
     public Map<String, String> getResponse(String username, String userMessage) {
         String msg = userMessage == null ? "" : userMessage.toLowerCase().trim();
-        List<Transaction> tx = txRepo.findByUserUsername(username);
 
         // 1️⃣ Greetings
         if (msg.matches("hi|hello|hey|hlo|yo|hey there")) {
@@ -53,24 +56,24 @@ public class AiChatService {
 
         // 2️⃣ Predict Next Month Expense
         if (msg.contains("predict") && msg.contains("expense")) {
-            double result = predictNextMonthExpense(tx);
+            double result = predictNextMonthExpense(username);
             return response("BUDGETWISE_AI",
                 "📅 Next Month Prediction*\nEstimated expenses: ₹" + String.format("%.2f", result) + "**");
         }
 
         // 3️⃣ Highest Spending Month
         if (msg.contains("highest") && msg.contains("month")) {
-            return response("BUDGETWISE_AI", highestSpendingThisMonth(tx));
+            return response("BUDGETWISE_AI", highestSpendingThisMonth(columnCache.get(username)));
         }
 
         // 4️⃣ Highest Spending Week
         if (msg.contains("highest") && msg.contains("week")) {
-            return response("BUDGETWISE_AI", highestSpendingThisWeek(tx));
+            return response("BUDGETWISE_AI", highestSpendingThisWeek(columnCache.get(username)));
         }
 
         // 5️⃣ Finance Analysis
         if (msg.contains("analysis") || msg.contains("my finance") || msg.contains("my spending")) {
-            return response("BUDGETWISE_AI", getPersonalAnalysis(tx));
+            return response("BUDGETWISE_AI", getPersonalAnalysis(columnCache.get(username)) + unusualSpending(username));
         }
 
         // 6️⃣ Savings Tips
@@ -136,51 +139,53 @@ public class AiChatService {
         return map;
     }
 
-    // ---------- existing helper methods (unchanged) ----------
-    private double predictNextMonthExpense(List<Transaction> tx) {
-        List<Transaction> expenses = tx.stream()
-                .filter(t -> "EXPENSE".equalsIgnoreCase(t.getType()))
-                .toList();
-
-        if (expenses.size() < 2) return 0;
-
-        Map<YearMonth, Double> monthly = expenses.stream()
-                .collect(Collectors.groupingBy(
-                        t -> YearMonth.from(t.getDate()),
-                        Collectors.summingDouble(Transaction::getAmount)
-                ));
-
-        return monthly.values().stream().mapToDouble(Double::doubleValue).average().orElse(0);
+    // Precomputed nightly; recomputed only if the user's data changed since
+    private double predictNextMonthExpense(String username) {
+        Double prediction = insightService.nextMonthExpense(username);
+        return prediction == null ? 0 : prediction;
     }
 
-    private String highestSpendingThisMonth(List<Transaction> tx) {
+    // ---------- helpers (primitive loops over the cached columns) ----------
+
+    private String highestSpendingThisMonth(TransactionColumns tx) {
         YearMonth now = YearMonth.now();
-        return tx.stream()
-                .filter(t -> "EXPENSE".equalsIgnoreCase(t.getType()))
-                .filter(t -> YearMonth.from(t.getDate()).equals(now))
-                .collect(Collectors.groupingBy(Transaction::getCategory, Collectors.summingDouble(Transaction::getAmount)))
+        int from = (int) now.atDay(1).toEpochDay();
+        int to = (int) now.atEndOfMonth().toEpochDay();
+        return tx.categoryTotalsMinor(TransactionColumns.EXPENSE, from, to)
                 .entrySet().stream()
                 .max(Map.Entry.comparingByValue())
-                .map(e -> "📅 Highest Spending This Month: " + e.getKey() + " ₹" + e.getValue())
+                .map(e -> "📅 Highest Spending This Month: " + e.getKey() + " ₹" + Money.ofMinor(e.getValue()))
                 .orElse("No expenses this month.");
     }
 
-    private String highestSpendingThisWeek(List<Transaction> tx) {
-        LocalDate weekStart = LocalDate.now().minusDays(7);
-        return tx.stream()
-                .filter(t -> "EXPENSE".equalsIgnoreCase(t.getType()))
-                .filter(t -> !t.getDate().isBefore(weekStart))
-                .collect(Collectors.groupingBy(Transaction::getCategory, Collectors.summingDouble(Transaction::getAmount)))
+    private String highestSpendingThisWeek(TransactionColumns tx) {
+        int weekStart = (int) LocalDate.now().minusDays(7).toEpochDay();
+        return tx.categoryTotalsMinor(TransactionColumns.EXPENSE, weekStart, TransactionColumns.ALL_DAYS_TO)
                 .entrySet().stream()
                 .max(Map.Entry.comparingByValue())
-                .map(e -> "📆 Highest Weekly Expense: " + e.getKey() + " ₹" + e.getValue())
+                .map(e -> "📆 Highest Weekly Expense: " + e.getKey() + " ₹" + Money.ofMinor(e.getValue()))
                 .orElse("No expenses this week.");
     }
 
-    private String getPersonalAnalysis(List<Transaction> tx) {
-        double expense = tx.stream().filter(t -> "EXPENSE".equalsIgnoreCase(t.getType())).mapToDouble(Transaction::getAmount).sum();
-        double income = tx.stream().filter(t -> "INCOME".equalsIgnoreCase(t.getType())).mapToDouble(Transaction::getAmount).sum();
-        return "📊 Your Finance Summary\nIncome: ₹" + income + "\nExpense: ₹" + expense + "\nSavings: ₹" + (income - expense);
+    private String getPersonalAnalysis(TransactionColumns tx) {
+        // Exact paise: double rupees print 799.9000000000001 and 1.0E7
+        long expense = tx.sum(TransactionColumns.EXPENSE);
+        long income = tx.sum(TransactionColumns.INCOME);
+        return "📊 Your Finance Summary\nIncome: ₹" + Money.ofMinor(income) + "\nExpense: ₹" + Money.ofMinor(expense)
+                + "\nSavings: ₹" + Money.ofMinor(Math.subtractExact(income, expense));
+    }
+
+    // Latest flagged expenses, appended to the analysis
+    private String unusualSpending(String username) {
+        List<TransactionAnomaly> recent = anomalies.recent(username, 3);
+        if (recent.isEmpty()) return "";
+        StringBuilder sb = new StringBuilder("\n\n⚠️ Unusual spending");
+        for (TransactionAnomaly a : recent) {
+            sb.append("\n ₹").append(a.getAmount()).append(" on ")
+              .append(a.getCategory() == null ? "Uncategorised" : a.getCategory())
+              .append(" (usually about ₹").append(a.getTypical()).append(")");
+        }
+        return sb.toString();
     }
 
     // ---------------------------
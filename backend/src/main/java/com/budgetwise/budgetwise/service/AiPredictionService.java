@@ -1,81 +1,153 @@
 package com.budgetwise.budgetwise.service;
 
-import com.budgetwise.budgetwise.entity.Transaction;
-import com.budgetwise.budgetwise.repository.TransactionRepository;
+import com.budgetwise.budgetwise.service.forecast.ForecastEngine;
+import com.budgetwise.budgetwise.service.forecast.ForecastModel;
 import org.springframework.stereotype.Service;
 
 import java.time.YearMonth;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class AiPredictionService {
 
-    private final TransactionRepository transactionRepo;
+    // Forecasts are for next calendar month; history ends with last month (the
+    // current month is incomplete), so next month is two steps ahead
+    private static final int HORIZON = 2;
+    public static final int MAX_HISTORY_MONTHS = 60;
 
-    public AiPredictionService(TransactionRepository transactionRepo) {
-        this.transactionRepo = transactionRepo;
+    private final TransactionColumnCache columnCache;
+    private final ForecastEngine engine;
+
+    public AiPredictionService(TransactionColumnCache columnCache, ForecastEngine engine) {
+        this.columnCache = columnCache;
+        this.engine = engine;
+    }
+
+    // Dense monthly expense history: total[m] and byCategory[c][m] in minor units.
+    // Built from the column cache here and from SQL aggregates by InsightBatchJob.
+    public record ExpenseSeries(int firstMonth, int months, double[] total, double[][] byCategory,
+                                String[] categoryNames) {
+
+        // Empty window of full months before now, starting no earlier than the
+        // first month with data; null when there is no full month yet
+        public static ExpenseSeries window(int firstDataMonth, YearMonth now, String[] categoryNames) {
+            int last = TransactionColumns.monthKey(now) - 1;
+            int first = Math.max(firstDataMonth, last - MAX_HISTORY_MONTHS + 1);
+            int months = last - first + 1;
+            if (months < 1) return null;
+            return new ExpenseSeries(first, months, new double[months], new double[categoryNames.length][],
+                    categoryNames);
+        }
+
+        // Adds an amount (or a monthly sum) to the total and its category; outside the window it is dropped
+        public void add(int category, int monthKey, double minor) {
+            int m = monthKey - firstMonth;
+            if (m < 0 || m >= months) return;
+            if (byCategory[category] == null) byCategory[category] = new double[months];
+            total[m] += minor;
+            byCategory[category][m] += minor;
+        }
     }
 
     // ========== MAIN PREDICTION METHOD ==========
     public Map<String, Object> predictExpenses(String username) {
+        return predict(columnCache.get(username), YearMonth.now());
+    }
 
-        // Step 1: Fetch all EXPENSE transactions by user
-        List<Transaction> allTx = transactionRepo.findByUserUsername(username)
-                .stream()
-                .filter(t -> t.getType().equalsIgnoreCase("EXPENSE"))
-                .toList();
+    // Next month's expense in rupees, or null without enough history (dashboard, chatbot)
+    public Double nextMonthExpense(TransactionColumns cols) {
+        return nextMonthExpense(series(cols, YearMonth.now()));
+    }
 
-        if (allTx.size() < 2) {
-            return Map.of("error", "Not enough data to predict.");
-        }
+    public Double nextMonthExpense(ExpenseSeries s) {
+        if (s == null) return null;
+        ForecastEngine.Selection sel = engine.select(s.total(), s.months(), HORIZON);
+        return TransactionColumns.toMajor(Math.round(
+                engine.forecast(sel.model(), s.total(), s.months(), HORIZON).point()));
+    }
 
-        // Step 2: Group by YearMonth
-        Map<YearMonth, Double> monthlyTotals = allTx.stream()
-                .collect(Collectors.groupingBy(
-                        t -> YearMonth.from(t.getDate()),
-                        Collectors.summingDouble(Transaction::getAmount)
-                ));
+    // 🟢 Model chosen per user by backtest on the total, then applied to every category
+    public Map<String, Object> predict(TransactionColumns cols, YearMonth now) {
+        return predict(series(cols, now), now);
+    }
 
-        // Step 3: Sort months correctly
-        List<YearMonth> months = new ArrayList<>(monthlyTotals.keySet());
-        Collections.sort(months);
+    public Map<String, Object> predict(ExpenseSeries s, YearMonth now) {
+        if (s == null) {
+            return Map.of("error", "Not enough data to predict.");
+        }
 
-        // Step 4: Convert to x,y for regression
-        List<Double> x = new ArrayList<>();
-        List<Double> y = new ArrayList<>();
+        ForecastEngine.Selection sel = engine.select(s.total(), s.months(), HORIZON);
+        ForecastModel model = sel.model();
+        ForecastEngine.Forecast total = engine.forecast(model, s.total(), s.months(), HORIZON);
 
-        for (int i = 0; i < months.size(); i++) {
-            x.add((double) i);
-            y.add(monthlyTotals.get(months.get(i)));
+        List<YearMonth> months = new ArrayList<>(s.months());
+        Map<YearMonth, Double> monthlyTotals = new LinkedHashMap<>();
+        for (int m = 0; m < s.months(); m++) {
+            YearMonth ym = TransactionColumns.toYearMonth(s.firstMonth() + m);
+            months.add(ym);
+            monthlyTotals.put(ym, TransactionColumns.toMajor((long) s.total()[m]));
         }
 
-        // Step 5: Predict next month (Simple Linear Regression)
-        double prediction = linearRegressionPredict(x, y, months.size());
-
-        return Map.of(
-                "months", months,
-                "monthlyTotals", monthlyTotals,
-                "nextMonthPrediction", prediction
-        );
+        List<Map<String, Object>> categories = new ArrayList<>();
+        for (int c = 0; c < s.byCategory().length; c++) {
+            double[] y = s.byCategory()[c];
+            if (y == null) continue;
+            ForecastEngine.Forecast f = engine.forecast(model, y, s.months(), HORIZON);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("category", s.categoryNames()[c]);
+            row.put("prediction", rupees(f.point()));
+            row.put("interval80", interval(f.lower80(), f.upper80()));
+            categories.add(row);
+        }
+        categories.sort(Comparator.comparing((Map<String, Object> r) -> (Double) r.get("prediction")).reversed());
+
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("months", months);
+        res.put("monthlyTotals", monthlyTotals);
+        res.put("forecastMonth", now.plusMonths(1));
+        res.put("nextMonthPrediction", rupees(total.point()));
+        res.put("interval80", interval(total.lower80(), total.upper80()));
+        res.put("interval95", interval(total.lower95(), total.upper95()));
+        res.put("model", model.name());
+        res.put("backtestMae", toRupees(sel.backtestMae()));
+        res.put("categories", categories);
+        return res;
     }
 
-    // ========== SIMPLE LINEAR REGRESSION ==========
-    private double linearRegressionPredict(List<Double> x, List<Double> y, int nextX) {
-        int n = x.size();
+    // One pass over the rows fills the total and every category's series
+    public ExpenseSeries series(TransactionColumns cols, YearMonth now) {
+        if (cols.count(TransactionColumns.EXPENSE) < 2) return null;
+        TransactionColumns.MonthlyTotals monthly = cols.monthly(TransactionColumns.EXPENSE);
+        if (monthly.totals.length == 0) return null;
+
+        String[] names = new String[cols.categoryCount()];
+        for (int c = 0; c < names.length; c++) names[c] = cols.categoryName(c);
+        ExpenseSeries s = ExpenseSeries.window(monthly.firstMonth, now, names);
+        if (s == null) return null;
+        for (int i = 0, size = cols.size(); i < size; i++) {
+            if (!cols.is(i, TransactionColumns.EXPENSE) || cols.epochDay(i) == TransactionColumns.NO_DATE) continue;
+            s.add(cols.category(i), TransactionColumns.monthKey(cols.epochDay(i)), cols.amount(i));
+        }
+        return s;
+    }
 
-        double sumX = 0, sumY = 0, sumXY = 0, sumXX = 0;
+    // ---------- helpers ----------
 
-        for (int i = 0; i < n; i++) {
-            sumX += x.get(i);
-            sumY += y.get(i);
-            sumXY += x.get(i) * y.get(i);
-            sumXX += x.get(i) * x.get(i);
-        }
+    private static Double rupees(double minor) {
+        return TransactionColumns.toMajor(Math.round(minor));
+    }
 
-        double slope = (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX);
-        double intercept = (sumY - slope * sumX) / n;
+    private static Map<String, Double> interval(double lower, double upper) {
+        if (Double.isNaN(lower)) return null;
+        Map<String, Double> m = new LinkedHashMap<>();
+        m.put("lower", rupees(lower));
+        m.put("upper", rupees(upper));
+        return m;
+    }
 
-        return slope * nextX + intercept;
+    private static Map<String, Double> toRupees(Map<String, Double> minor) {
+        Map<String, Double> out = new LinkedHashMap<>();
+        minor.forEach((k, v) -> out.put(k, rupees(v)));
+        return out;
     }
 }
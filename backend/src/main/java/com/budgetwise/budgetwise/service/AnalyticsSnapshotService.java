@@ -0,0 +1,220 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.entity.CacheInvalidationEvent;
+import com.budgetwise.budgetwise.entity.Transaction;
+import com.budgetwise.budgetwise.repository.CacheInvalidationEventRepository;
+import com.budgetwise.budgetwise.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Persists the analytics column cache to a memory-mapped file so a restart
+ * comes up warm instead of every user's first dashboard hitting MySQL.
+ *
+ * File layout: fixed header (magic, format version, written-at, transaction
+ * high-water id, invalidation log cursor, user count, payload length, CRC32
+ * of the payload), then per user: username + TransactionColumns block.
+ *
+ * On restore, users with USER_DATA invalidations after the cursor are
+ * dropped and rows with ids above the high-water mark are patched in. A
+ * snapshot older than the invalidation log retention cannot be reconciled
+ * and is ignored.
+ */
+@Service
+@DependsOn("schemaMigrations")
+public class AnalyticsSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsSnapshotService.class);
+
+    private static final int MAGIC = 0x42574153;   // "BWAS"
+    private static final int FORMAT_VERSION = 2;   // 2: category ids in the dictionary
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 8 + 4 + 4 + 4;
+
+    private final TransactionColumnCache columnCache;
+    private final TransactionRepository txRepo;
+    private final CacheInvalidationEventRepository eventRepo;
+    private final CacheInvalidationBus bus;
+
+    @Value("${app.analytics.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.analytics.snapshot.path:data/analytics-columns.snap}")
+    private String path;
+
+    @Value("${app.cache.invalidation.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Value("${app.cache.invalidation.look-back-seconds:10}")
+    private long lookBackSeconds;
+
+    public AnalyticsSnapshotService(TransactionColumnCache columnCache,
+                                    TransactionRepository txRepo,
+                                    CacheInvalidationEventRepository eventRepo,
+                                    CacheInvalidationBus bus) {
+        this.columnCache = columnCache;
+        this.txRepo = txRepo;
+        this.eventRepo = eventRepo;
+        this.bus = bus;
+    }
+
+    // ---------- restore (before the web server takes traffic) ----------
+    @PostConstruct
+    public void restore() {
+        if (!enabled) return;
+        Path file = Paths.get(path);
+        if (!Files.isRegularFile(file)) return;
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() < HEADER_BYTES || ch.size() > Integer.MAX_VALUE) {
+                log.warn("Ignoring analytics snapshot {}: bad size {}", file, ch.size());
+                return;
+            }
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+
+            if (buf.getInt() != MAGIC || buf.getInt() != FORMAT_VERSION) {
+                log.warn("Ignoring analytics snapshot {}: unknown format", file);
+                return;
+            }
+            long writtenAt = buf.getLong();
+            long txHighWater = buf.getLong();
+            long eventCursor = buf.getLong();
+            int userCount = buf.getInt();
+            int payloadLength = buf.getInt();
+            int crc = buf.getInt();
+
+            if (payloadLength != ch.size() - HEADER_BYTES || crc != crc(buf.slice(HEADER_BYTES, payloadLength))) {
+                log.warn("Ignoring analytics snapshot {}: checksum mismatch", file);
+                return;
+            }
+            LocalDateTime written = LocalDateTime.ofInstant(Instant.ofEpochMilli(writtenAt), ZoneId.systemDefault());
+            if (written.isBefore(LocalDateTime.now().minusMinutes(retentionMinutes))) {
+                log.info("Ignoring analytics snapshot {}: older than the invalidation log", file);
+                return;
+            }
+
+            Map<String, TransactionColumns> restored = new HashMap<>(userCount * 2);
+            for (int u = 0; u < userCount; u++) {
+                byte[] name = new byte[buf.getShort()];
+                buf.get(name);
+                restored.put(new String(name, StandardCharsets.UTF_8), TransactionColumns.readFrom(buf));
+            }
+
+            reconcile(restored, txHighWater, eventCursor, written);
+            restored.forEach(columnCache::warm);
+            log.info("Restored analytics columns for {} users from {}", restored.size(), file);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Ignoring analytics snapshot {}: {}", file, ex.getMessage());
+        }
+    }
+
+    private void reconcile(Map<String, TransactionColumns> restored, long txHighWater,
+                           long eventCursor, LocalDateTime written) {
+        long lastEvent = eventCursor;
+        LocalDateTime since = written.minusSeconds(lookBackSeconds);
+        for (CacheInvalidationEvent e : eventRepo.findNewerThan(eventCursor, since)) {
+            lastEvent = Math.max(lastEvent, e.getId());
+            if (CacheInvalidationBus.USER_DATA.equals(e.getRegion())) {
+                restored.remove(e.getCacheKey());
+            }
+        }
+        // Rows inserted behind the application's back (imports, SQL fixes)
+        for (Transaction t : txRepo.findWithUserByIdGreaterThan(txHighWater)) {
+            if (t.getUser() != null) {
+                restored.computeIfPresent(t.getUser().getUsername(), (u, cols) -> cols.withUpserted(t));
+            }
+        }
+        bus.resumeFrom(lastEvent);
+    }
+
+    // ---------- write (periodically and on shutdown) ----------
+    @Scheduled(fixedDelayString = "${app.analytics.snapshot.interval-ms:300000}",
+               initialDelayString = "${app.analytics.snapshot.interval-ms:300000}")
+    public void scheduledWrite() {
+        write();
+    }
+
+    @PreDestroy
+    public void writeOnShutdown() {
+        write();
+    }
+
+    public synchronized void write() {
+        if (!enabled) return;
+        Path file = Paths.get(path);
+        try {
+            // Marks first: anything written after them is reconciled on restore
+            long eventCursor = eventRepo.findMaxId();
+            long txHighWater = txRepo.findMaxId();
+            long writtenAt = System.currentTimeMillis();
+            Map<String, TransactionColumns> entries = columnCache.entries();
+
+            long payload = 0;
+            List<byte[]> names = new ArrayList<>(entries.size());
+            for (Map.Entry<String, TransactionColumns> e : entries.entrySet()) {
+                byte[] name = e.getKey().getBytes(StandardCharsets.UTF_8);
+                names.add(name);
+                payload += 2 + name.length + e.getValue().serializedSize();
+            }
+            if (HEADER_BYTES + payload > Integer.MAX_VALUE) {
+                log.warn("Analytics snapshot skipped: {} bytes is too large to map", payload);
+                return;
+            }
+
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + payload);
+                buf.position(HEADER_BYTES);
+                int i = 0;
+                for (Map.Entry<String, TransactionColumns> e : entries.entrySet()) {
+                    byte[] name = names.get(i++);
+                    buf.putShort((short) name.length);
+                    buf.put(name);
+                    e.getValue().writeTo(buf);
+                }
+
+                buf.position(0);
+                buf.putInt(MAGIC);
+                buf.putInt(FORMAT_VERSION);
+                buf.putLong(writtenAt);
+                buf.putLong(txHighWater);
+                buf.putLong(eventCursor);
+                buf.putInt(entries.size());
+                buf.putInt((int) payload);
+                buf.putInt(crc(buf.slice(HEADER_BYTES, (int) payload)));
+                buf.force();
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Wrote analytics snapshot for {} users ({} bytes)", entries.size(), HEADER_BYTES + payload);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Analytics snapshot write failed: {}", ex.getMessage());
+        }
+    }
+
+    private static int crc(ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
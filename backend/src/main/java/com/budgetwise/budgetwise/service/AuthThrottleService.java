@@ -0,0 +1,121 @@
+package com.budgetwise.budgetwise.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token buckets in front of the auth endpoints: one per client IP (every
+ * attempt costs a token) and one per username (only failed logins cost a
+ * token, and a successful login clears it), so guessing one account's
+ * password is slow from anywhere while its owner is not locked out by a typo.
+ *
+ * Buckets sit in a fixed number of stripes, each a small LRU map behind its
+ * own lock, so concurrent attempts only contend when they hash to the same
+ * stripe and memory stays bounded however many keys an attacker makes up.
+ * Per node; the IP is the servlet remote address (put the proxy's forwarded
+ * header handling in front via server.forward-headers-strategy).
+ */
+@Service
+public class AuthThrottleService {
+
+    private static final int STRIPES = 64;   // power of two
+
+    private final Limiter byIp;
+    private final Limiter byUsername;
+
+    public AuthThrottleService(@Value("${app.auth-throttle.ip.capacity:20}") int ipCapacity,
+                               @Value("${app.auth-throttle.ip.per-minute:20}") double ipPerMinute,
+                               @Value("${app.auth-throttle.username.capacity:5}") int userCapacity,
+                               @Value("${app.auth-throttle.username.per-minute:1}") double userPerMinute,
+                               @Value("${app.auth-throttle.max-keys:100000}") int maxKeys) {
+        this.byIp = new Limiter(ipCapacity, ipPerMinute / 60.0, maxKeys);
+        this.byUsername = new Limiter(userCapacity, userPerMinute / 60.0, maxKeys);
+    }
+
+    // 🟢 Every auth request: one token from the caller's IP
+    public void checkIp(HttpServletRequest request) {
+        long wait = byIp.take(request.getRemoteAddr(), true);
+        if (wait > 0) throw new TooManyRequestsException("Too many attempts from this address", wait);
+    }
+
+    // Before a login or password check: refuse while the account's failures are used up
+    public void checkUsername(String username) {
+        long wait = byUsername.take(key(username), false);
+        if (wait > 0) throw new TooManyRequestsException("Too many failed attempts for this account", wait);
+    }
+
+    public void loginFailed(String username) {
+        byUsername.take(key(username), true);
+    }
+
+    public void loginSucceeded(String username) {
+        byUsername.reset(key(username));
+    }
+
+    private static String key(String username) {
+        return username.length() <= 191 ? username : username.substring(0, 191);
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long refilledAt;
+    }
+
+    private static final class Limiter {
+        private final double capacity;
+        private final double perSecond;
+        private final Map<String, Bucket>[] stripes;
+
+        @SuppressWarnings("unchecked")
+        Limiter(int capacity, double perSecond, int maxKeys) {
+            this.capacity = capacity;
+            this.perSecond = perSecond;
+            int perStripe = Math.max(16, maxKeys / STRIPES);
+            this.stripes = new Map[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                        return size() > perStripe;   // evicted keys come back with a full bucket
+                    }
+                };
+            }
+        }
+
+        // 0 when a token was available (and taken, if consume), else seconds until one is
+        long take(String key, boolean consume) {
+            Map<String, Bucket> stripe = stripeFor(key);
+            long now = System.nanoTime();
+            synchronized (stripe) {
+                Bucket b = stripe.get(key);
+                if (b == null) {
+                    b = new Bucket();
+                    b.tokens = capacity;
+                    b.refilledAt = now;
+                    stripe.put(key, b);
+                }
+                b.tokens = Math.min(capacity, b.tokens + (now - b.refilledAt) / 1e9 * perSecond);
+                b.refilledAt = now;
+                if (b.tokens < 1) return (long) Math.ceil((1 - b.tokens) / perSecond);
+                if (consume) b.tokens -= 1;
+                return 0;
+            }
+        }
+
+        void reset(String key) {
+            Map<String, Bucket> stripe = stripeFor(key);
+            synchronized (stripe) {
+                stripe.remove(key);
+            }
+        }
+
+        private Map<String, Bucket> stripeFor(String key) {
+            int h = key.hashCode();
+            return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.entity.Budget;
+import com.budgetwise.budgetwise.entity.BudgetPeriod;
+import com.budgetwise.budgetwise.entity.User;
+import com.budgetwise.budgetwise.repository.BudgetRepository;
+import com.budgetwise.budgetwise.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budget threshold alerts driven by transaction writes. Per user, each
+ * budget's running spent total is seeded from the stored spent amount and
+ * then moved by the per-budget deltas BudgetService.applySpending reports,
+ * so a write is checked against only the budgets it touched.
+ *
+ * Crossings land in a pending map keyed by budget id that is drained every
+ * couple of seconds, so a burst of writes leaves one entry per budget.
+ * Draining claims the level in budgets.alert_level with a conditional
+ * UPDATE (two nodes never both alert), then pushes an in-app event and adds
+ * a line to the user's next digest email.
+ *
+ * Totals are a cache: budget edits and other nodes' writes drop them, and
+ * they are re-seeded after a fixed interval regardless.
+ */
+@Service
+public class BudgetAlertService implements CacheInvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(BudgetAlertService.class);
+    private static final int[] THRESHOLDS = {100, 80, 50};   // highest first
+
+    private final BudgetRepository budgetRepo;
+    private final UserRepository userRepo;
+    private final LiveEventService liveEvents;
+    private final EmailService emailService;
+    private final CacheInvalidationBus invalidationBus;
+    private final DataVersionService dataVersions;
+    private final Cache<String, Map<Long, Limit>> totals;
+
+    private final Map<Long, PendingAlert> pending = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> digests = new ConcurrentHashMap<>();
+
+    public BudgetAlertService(BudgetRepository budgetRepo, UserRepository userRepo,
+                              LiveEventService liveEvents, EmailService emailService,
+                              CacheInvalidationBus invalidationBus, DataVersionService dataVersions,
+                              @Value("${app.budget-alerts.max-users:50000}") long maxUsers,
+                              @Value("${app.budget-alerts.reseed-minutes:15}") long reseedMinutes) {
+        this.budgetRepo = budgetRepo;
+        this.userRepo = userRepo;
+        this.liveEvents = liveEvents;
+        this.emailService = emailService;
+        this.invalidationBus = invalidationBus;
+        this.dataVersions = dataVersions;
+        this.totals = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofMinutes(reseedMinutes))
+                .build();
+    }
+
+    // One budget: its limit, running spent total and the level last seen for it
+    private record Limit(long budgetId, long limitMinor, String category, String period,
+                         AtomicLong spent, AtomicInteger level) {}
+
+    private record PendingAlert(String username, long budgetId, String category, String period,
+                                int level, long percent, boolean raised) {}
+
+    // ---------- write hooks (called after the change has committed) ----------
+
+    // budgetDeltas: budget id → change in spent, as returned by applySpending
+    public void recordSpending(User user, Map<Long, Long> budgetDeltas) {
+        if (budgetDeltas.isEmpty()) return;
+        Map<Long, Limit> limits = totals.getIfPresent(user.getUsername());
+        if (limits == null || !limits.keySet().containsAll(budgetDeltas.keySet())) {
+            refresh(user);   // the stored amounts already include this write
+            return;
+        }
+        budgetDeltas.forEach((id, delta) -> {
+            Limit l = limits.get(id);
+            evaluate(user.getUsername(), l, l.spent().addAndGet(delta));
+        });
+    }
+
+    public void invalidate(String username) {
+        totals.invalidate(username);
+    }
+
+    // New budgets for many users at once (rollover): re-seed lazily on the next write
+    public void invalidateAll() {
+        totals.invalidateAll();
+    }
+
+    // Budgets changed: re-seed and re-check every budget of the user
+    public void refresh(User user) {
+        totals.invalidate(user.getUsername());
+        Map<Long, Limit> limits = totals.get(user.getUsername(), u -> load(u));
+        limits.values().forEach(l -> evaluate(user.getUsername(), l, l.spent().get()));
+    }
+
+    // ---------- running totals ----------
+
+    private Map<Long, Limit> load(String username) {
+        Map<Long, Limit> limits = new HashMap<>();
+        for (Budget b : budgetRepo.findByUserUsername(username)) {
+            if (b.getPeriodStart() == null || b.getCategoryRef() == null || !b.getLimitAmount().isPositive()) {
+                continue;
+            }
+            limits.put(b.getId(), new Limit(b.getId(), b.getLimitAmount().minor(), b.getCategory(), periodOf(b),
+                    new AtomicLong(b.getSpentAmount().minor()), new AtomicInteger(b.getAlertLevel())));
+        }
+        return limits;
+    }
+
+    private void evaluate(String username, Limit l, long spent) {
+        long percent = spent * 100 / l.limitMinor();
+        int level = levelOf(percent);
+        int previous = l.level().getAndSet(level);
+        if (level != previous) {
+            // Replaces anything still pending for this budget: one alert per burst
+            pending.put(l.budgetId(), new PendingAlert(username, l.budgetId(), l.category(), l.period(),
+                    level, percent, level > previous));
+        }
+    }
+
+    // ---------- notification queue ----------
+
+    @Scheduled(fixedDelayString = "${app.budget-alerts.flush-interval-ms:2000}")
+    public void drain() {
+        Set<String> changed = new HashSet<>();
+        for (Long budgetId : pending.keySet()) {
+            PendingAlert a = pending.remove(budgetId);
+            if (a == null) continue;
+            try {
+                int rows = a.raised()
+                        ? budgetRepo.raiseAlertLevel(budgetId, a.level())
+                        : budgetRepo.lowerAlertLevel(budgetId, a.level());
+                if (rows == 0) continue;   // already at this level: sent by another node or an earlier burst
+                invalidationBus.publish(CacheInvalidationBus.BUDGET, budgetId);
+                changed.add(a.username());
+                if (a.raised()) deliver(a);
+            } catch (RuntimeException ex) {
+                log.warn("Budget alert for budget {} failed: {}", budgetId, ex.getMessage());
+            }
+        }
+        // alertLevel is part of GET /api/budgets, so its ETag has to move too
+        for (String username : changed) {
+            try {
+                dataVersions.bump(username);
+            } catch (RuntimeException ex) {
+                log.warn("Data version bump for {} failed: {}", username, ex.getMessage());
+            }
+        }
+    }
+
+    private void deliver(PendingAlert a) {
+        liveEvents.publish(a.username(), LiveEventService.BUDGET, Map.of(
+                "id", a.budgetId(),
+                "category", a.category(),
+                "percent", a.percent(),
+                "threshold", a.level(),
+                "crossed", "up"));
+
+        String line = a.category() + " (" + a.period() + "): " + a.percent() + "% of the budget used";
+        digests.compute(a.username(), (u, lines) -> {
+            if (lines == null) lines = new ArrayList<>();
+            lines.add(line);
+            return lines;
+        });
+    }
+
+    // One email per user per interval, however many budgets crossed
+    @Scheduled(fixedDelayString = "${app.budget-alerts.email-interval-ms:300000}")
+    public void sendDigests() {
+        for (String username : digests.keySet()) {
+            List<String> lines = digests.remove(username);
+            if (lines == null) continue;
+            try {
+                String email = userRepo.findByUsername(username).map(User::getEmail).orElse(null);
+                if (email == null || email.isBlank()) continue;
+                emailService.sendPlainTextEmail(email, "BudgetWise budget alert",
+                        "Hi " + username + ",\n\nSome of your budgets need attention:\n\n- "
+                                + String.join("\n- ", lines)
+                                + "\n\nOpen BudgetWise to review your spending.");
+            } catch (RuntimeException ex) {
+                log.warn("Budget alert email to {} failed: {}", username, ex.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onInvalidate(String region, String key) {
+        if (CacheInvalidationBus.USER_DATA.equals(region)) {
+            totals.invalidate(key);
+        } else if (CacheInvalidationBus.BUDGETS_GENERATED.equals(region)) {
+            totals.invalidateAll();
+        }
+    }
+
+    // ---------- helpers ----------
+
+    private static int levelOf(long percent) {
+        for (int threshold : THRESHOLDS) {
+            if (percent >= threshold) return threshold;
+        }
+        return 0;
+    }
+
+    private static String periodOf(Budget b) {
+        return b.getPeriodType() == BudgetPeriod.MONTHLY
+                ? b.getPeriodStart().getMonth() + " " + b.getPeriodStart().getYear()
+                : b.getPeriodStart() + " to " + b.getPeriodEnd();
+    }
+}
@@ -0,0 +1,238 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.entity.BudgetPeriod;
+import com.budgetwise.budgetwise.entity.BudgetTemplate;
+import com.budgetwise.budgetwise.entity.JobLock;
+import com.budgetwise.budgetwise.entity.TransactionType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Turns every active budget template into a Budget row for the period that
+ * contains the target date (today plus lead-days), for all users.
+ *
+ * Templates are walked by id in chunks; each chunk is one transaction of
+ * JDBC batches (insert budgets, bump data versions) that also records the
+ * chunk's last id in the job_locks row. A run that dies part-way is picked
+ * up from that cursor by whichever node runs next. Inserts are INSERT IGNORE
+ * against the (template_id, period_start) unique key and skip periods the
+ * user already budgeted by hand, so re-running a chunk changes nothing.
+ *
+ * Only the node holding the job_locks lease runs; the lease is renewed with
+ * every chunk and expires on its own if the holder disappears.
+ */
+@Service
+public class BudgetRolloverJob {
+
+    private static final Logger log = LoggerFactory.getLogger(BudgetRolloverJob.class);
+    private static final String JOB = "budget-rollover";
+
+    private final JobLockService jobLocks;
+    private final DataVersionService dataVersions;
+    private final BudgetAlertService budgetAlerts;
+    private final LiveEventService liveEvents;
+    private final CacheInvalidationBus invalidationBus;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate chunkTx;
+    private final Cache secondLevelCache;
+    private final int chunkSize;
+    private final Duration lease;
+    private final int leadDays;
+
+    public BudgetRolloverJob(JobLockService jobLocks, DataVersionService dataVersions,
+                             BudgetAlertService budgetAlerts, LiveEventService liveEvents,
+                             CacheInvalidationBus invalidationBus, DataSource dataSource,
+                             EntityManagerFactory emf, PlatformTransactionManager txManager,
+                             @Value("${app.budget-rollover.chunk-size:500}") int chunkSize,
+                             @Value("${app.budget-rollover.lease-minutes:10}") long leaseMinutes,
+                             @Value("${app.budget-rollover.lead-days:0}") int leadDays) {
+        this.jobLocks = jobLocks;
+        this.dataVersions = dataVersions;
+        this.budgetAlerts = budgetAlerts;
+        this.liveEvents = liveEvents;
+        this.invalidationBus = invalidationBus;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.chunkTx = new TransactionTemplate(txManager);
+        this.secondLevelCache = emf.unwrap(SessionFactory.class).getCache();
+        this.chunkSize = chunkSize;
+        this.lease = Duration.ofMinutes(leaseMinutes);
+        this.leadDays = leadDays;
+    }
+
+    // One active template as the job reads it
+    private record TemplateRow(long id, long userId, String username, int categoryId,
+                               long limitMinor, BudgetPeriod periodType, boolean carryOver) {}
+
+    private record Chunk(long lastId, int templates, Set<String> usernames) {}
+
+    // 🟢 Nightly run; a no-op on every node but the lease holder
+    @Scheduled(cron = "${app.budget-rollover.cron:0 10 0 * * *}")
+    public void scheduledRun() {
+        try {
+            run();
+        } catch (RuntimeException ex) {
+            log.warn("Budget rollover stopped: {}", ex.getMessage());
+        }
+    }
+
+    // 🟢 Also behind POST /api/admin/budget-rollover
+    public Map<String, Object> run() {
+        LocalDate target = LocalDate.now().plusDays(leadDays);
+        String runKey = target.toString();
+
+        Optional<JobLock> lock = jobLocks.tryAcquire(JOB, lease);
+        if (lock.isEmpty()) {
+            return Map.of("status", "busy", "message", "Budget rollover is running on another node");
+        }
+
+        int templates = 0, users = 0;
+        boolean finished = false;
+        try {
+            long cursor = JobLockService.resumeAfter(lock.get(), runKey);
+            long resumedFrom = cursor;
+
+            while (true) {
+                long after = cursor;
+                Chunk chunk = chunkTx.execute(s -> rolloverChunk(after, target, runKey));
+                if (chunk == null) break;
+                chunkCommitted(chunk.usernames(), runKey);
+                templates += chunk.templates();
+                users += chunk.usernames().size();
+                cursor = chunk.lastId();
+            }
+            finished = true;
+            log.info("Budget rollover for {}: {} templates, new budgets for {} users (resumed after id {})",
+                    runKey, templates, users, resumedFrom);
+        } finally {
+            jobLocks.release(JOB, finished);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", "done");
+        result.put("periodContaining", runKey);
+        result.put("templates", templates);
+        result.put("usersWithNewBudgets", users);
+        return result;
+    }
+
+    // 🟢 A template created today should not wait for tonight's run
+    public void rolloverNow(BudgetTemplate t) {
+        TemplateRow row = new TemplateRow(t.getId(), t.getUser().getId(), t.getUser().getUsername(),
+                t.getCategoryRef().getId(), t.getLimitAmount().minor(), t.getPeriodType(), t.isCarryOver());
+        LocalDate target = LocalDate.now();
+        Set<String> usernames = chunkTx.execute(s -> generate(List.of(row), target));
+        if (usernames != null && !usernames.isEmpty()) chunkCommitted(usernames, target.toString());
+    }
+
+    // ---------- one chunk = one transaction ----------
+
+    private Chunk rolloverChunk(long afterId, LocalDate target, String runKey) {
+        List<TemplateRow> rows = jdbc.query("""
+                SELECT t.id, t.user_id, u.username, t.category_id, t.limit_amount_minor, t.period_type, t.carry_over
+                FROM budget_templates t JOIN `user` u ON u.id = t.user_id
+                WHERE t.active = TRUE AND t.id > ?
+                ORDER BY t.id
+                LIMIT ?
+                """, (rs, i) -> new TemplateRow(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getInt(4),
+                        rs.getLong(5), BudgetPeriod.valueOf(rs.getString(6)), rs.getBoolean(7)),
+                afterId, chunkSize);
+        if (rows.isEmpty()) return null;
+
+        Set<String> usernames = generate(rows, target);
+        long lastId = rows.get(rows.size() - 1).id();
+        // Same transaction: the cursor moves only if the chunk commits
+        jobLocks.advance(JOB, runKey, lastId, lease);
+        return new Chunk(lastId, rows.size(), usernames);
+    }
+
+    // Inserts the target period's budget for each template; returns the users that got one
+    private Set<String> generate(List<TemplateRow> rows, LocalDate target) {
+        Map<Long, Long> carried = carriedOver(rows, target);
+
+        List<Object[]> inserts = new ArrayList<>(rows.size());
+        for (TemplateRow t : rows) {
+            LocalDate start = t.periodType().startOf(target);
+            LocalDate end = t.periodType().endOf(start);
+            long limit = Math.addExact(t.limitMinor(), carried.getOrDefault(t.id(), 0L));
+            inserts.add(new Object[]{
+                    t.userId(), t.categoryId(), t.id(), start.getMonth().name(), start.getYear(),
+                    t.periodType().name(), start, end, limit,
+                    // spent so far (non-zero when generating mid-period)
+                    t.userId(), t.categoryId(), TransactionType.EXPENSE.code(), start, end,
+                    // a budget the user already made by hand for this period wins
+                    t.userId(), t.categoryId(), start, t.periodType().name()});
+        }
+        int[] counts = jdbc.batchUpdate("""
+                INSERT IGNORE INTO budgets (user_id, category_id, template_id, month, year, period_type,
+                    period_start, period_end, limit_amount_minor, spent_amount_minor, version)
+                SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?,
+                    (SELECT COALESCE(SUM(tx.amount_minor), 0) FROM transactions tx
+                     WHERE tx.user_id = ? AND tx.category_id = ? AND tx.type_code = ?
+                       AND tx.date BETWEEN ? AND ?),
+                    0
+                FROM DUAL
+                WHERE NOT EXISTS (SELECT 1 FROM budgets b
+                                  WHERE b.user_id = ? AND b.category_id = ? AND b.period_start = ?
+                                    AND b.period_type = ?)
+                """, inserts);
+
+        Set<String> usernames = new LinkedHashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) usernames.add(rows.get(i).username());   // 1, or "unknown" (negative)
+        }
+        if (usernames.isEmpty()) return usernames;
+
+        // ETags must change with the budget list
+        List<Object[]> bumps = new ArrayList<>(usernames.size());
+        for (String u : usernames) bumps.add(new Object[]{u});
+        jdbc.batchUpdate("INSERT INTO user_data_versions (username, version) VALUES (?, 1)"
+                + " ON DUPLICATE KEY UPDATE version = version + 1", bumps);
+        return usernames;
+    }
+
+    // template id → unspent amount of its previous period's budget (carry-over templates only)
+    private Map<Long, Long> carriedOver(List<TemplateRow> rows, LocalDate target) {
+        List<Object> args = new ArrayList<>();
+        for (TemplateRow t : rows) {
+            if (!t.carryOver()) continue;
+            args.add(t.id());
+            args.add(t.periodType().previous(t.periodType().startOf(target)));
+        }
+        if (args.isEmpty()) return Map.of();
+
+        String in = String.join(", ", Collections.nCopies(args.size() / 2, "(?, ?)"));
+        Map<Long, Long> carried = new HashMap<>();
+        jdbc.query("SELECT template_id, limit_amount_minor - COALESCE(spent_amount_minor, 0) FROM budgets"
+                + " WHERE (template_id, period_start) IN (" + in + ")", rs -> {
+            long left = rs.getLong(2);
+            if (left > 0) carried.put(rs.getLong(1), left);
+        }, args.toArray());
+        return carried;
+    }
+
+    // Rows went in through JDBC, so the list query cache and cached versions are stale
+    private void chunkCommitted(Set<String> usernames, String runKey) {
+        if (usernames.isEmpty()) return;
+        secondLevelCache.evictQueryRegion("budget-lists");
+        dataVersions.forgetAll();
+        budgetAlerts.invalidateAll();
+        invalidationBus.publish(CacheInvalidationBus.BUDGETS_GENERATED, runKey);
+        for (String username : usernames) {
+            liveEvents.publish(username, LiveEventService.REFRESH, Map.of());
+        }
+    }
+}
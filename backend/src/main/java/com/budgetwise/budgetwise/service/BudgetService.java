@@ -1,68 +1,262 @@
 package com.budgetwise.budgetwise.service;
 
 import com.budgetwise.budgetwise.entity.Budget;
+import com.budgetwise.budgetwise.entity.BudgetPeriod;
+import com.budgetwise.budgetwise.entity.Category;
+import com.budgetwise.budgetwise.entity.Money;
 import com.budgetwise.budgetwise.entity.Transaction;
+import com.budgetwise.budgetwise.entity.TransactionType;
 import com.budgetwise.budgetwise.entity.User;
 import com.budgetwise.budgetwise.repository.BudgetRepository;
-import com.budgetwise.budgetwise.repository.TransactionRepository;
+import com.budgetwise.budgetwise.repository.TransactionView;
 import com.budgetwise.budgetwise.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.sql.DataSource;
+import java.time.LocalDate;
 import java.time.Month;
-import java.util.List;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.*;
 
 @Service
 public class BudgetService {
 
     private final BudgetRepository budgetRepo;
     private final UserRepository userRepo;
-    private final TransactionRepository txRepo;
+    private final CategoryService categoryService;
+    private final CacheInvalidationBus invalidationBus;
+    private final DataVersionService dataVersions;
+    private final BudgetAlertService budgetAlerts;
+    private final JdbcTemplate jdbc;
+    private final OptimisticRetry retry;
+    private final Cache secondLevelCache;
 
-    public BudgetService(BudgetRepository budgetRepo, UserRepository userRepo, TransactionRepository txRepo) {
+    public BudgetService(BudgetRepository budgetRepo, UserRepository userRepo,
+                         CategoryService categoryService, CacheInvalidationBus invalidationBus,
+                         DataVersionService dataVersions, BudgetAlertService budgetAlerts,
+                         DataSource dataSource, EntityManagerFactory emf, OptimisticRetry retry) {
         this.budgetRepo = budgetRepo;
         this.userRepo = userRepo;
-        this.txRepo = txRepo;
+        this.categoryService = categoryService;
+        this.invalidationBus = invalidationBus;
+        this.dataVersions = dataVersions;
+        this.budgetAlerts = budgetAlerts;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.retry = retry;
+        this.secondLevelCache = emf.unwrap(SessionFactory.class).getCache();
     }
 
     // 🟢 When adding a new budget
     public Budget addBudget(Budget budget, String username) {
         User user = userRepo.findByUsername(username).orElseThrow();
         budget.setUser(user);
+        budget.setCategoryRef(categoryService.resolve(user, budget.getCategory()));
+        resolvePeriod(budget, budget);
+        budget.setSpentAmount(Money.ZERO);
 
-        // Calculate spent based on existing transactions
-        double totalSpent = calculateSpent(budget.getCategory(), budget.getMonth(), username);
-        budget.setSpentAmount(totalSpent);
+        // Starting point; transaction writes keep it up to date from here on. A transaction
+        // write in the same category can deadlock with the recompute; the loser is retried.
+        Budget saved = retry.retryingDeadlocks(() -> {
+            budget.setId(null);   // a rolled-back attempt may have assigned them
+            budget.setVersion(null);
+            Budget b = budgetRepo.save(budget);
+            b.setSpentAmount(recomputeSpent(b.getId()));
+            return b;
+        });
+        spendingCommitted(List.of(saved.getId()));
+        dataVersions.bump(username);
+        budgetAlerts.refresh(user);   // may already be over a threshold
+        return saved;
+    }
+
+    // 🟢 When editing a budget: 409 with the current row if expectedVersion is stale
+    public Budget updateBudget(Long id, Budget changes, Long expectedVersion, String username) {
+        Budget b = budgetRepo.findByIdAndUserUsername(id, username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Budget not found"));
+        if (expectedVersion != null && !expectedVersion.equals(b.getVersion())) {
+            throw new VersionConflictException(b);
+        }
+
+        User user = userRepo.findByUsername(username).orElseThrow();
+        Category oldCategory = b.getCategoryRef();
+        LocalDate oldStart = b.getPeriodStart(), oldEnd = b.getPeriodEnd();
+        Money oldLimit = b.getLimitAmount();
+
+        resolvePeriod(changes, b);
+        b.setLimitAmount(changes.getLimitAmount());
+        b.setCategoryRef(categoryService.resolve(user, changes.getCategory()));
 
-        return budgetRepo.save(budget);
+        Budget saved;
+        try {
+            saved = retry.retryingDeadlocks(() -> {
+                Budget merged = budgetRepo.saveAndFlush(b);   // merge re-checks the version against the row
+                merged.setSpentAmount(recomputeSpent(id));
+                return merged;
+            });
+        } catch (OptimisticLockingFailureException lost) {
+            throw new VersionConflictException(budgetRepo.findByIdAndUserUsername(id, username).orElse(null));
+        }
+        // A different limit, period or category starts alerting from scratch
+        if (!Objects.equals(idOf(oldCategory), idOf(b.getCategoryRef()))
+                || !Objects.equals(oldStart, b.getPeriodStart()) || !Objects.equals(oldEnd, b.getPeriodEnd())
+                || !oldLimit.equals(b.getLimitAmount())) {
+            budgetRepo.lowerAlertLevel(id, 0);
+        }
+        spendingCommitted(List.of(id));
+        dataVersions.bump(username);
+        budgetAlerts.refresh(user);
+        return saved;
     }
 
-    // 🟢 When getting all budgets
+    // 🟢 When getting all budgets: spent is stored, nothing to recompute
+    @Transactional(readOnly = true)
     public List<Budget> getBudgets(String username) {
-        List<Budget> budgets = budgetRepo.findByUserUsername(username);
-        for (Budget b : budgets) {
-            double totalSpent = calculateSpent(b.getCategory(), b.getMonth(), username);
-            b.setSpentAmount(totalSpent);
+        return budgetRepo.findByUserUsername(username);
+    }
+
+    // 🟢 Period from the request: periodType + periodStart (+ periodEnd for CUSTOM),
+    // or the older month + year pair, which means MONTHLY
+    private void resolvePeriod(Budget from, Budget to) {
+        BudgetPeriod type = from.getPeriodType() != null ? from.getPeriodType() : BudgetPeriod.MONTHLY;
+        LocalDate start = from.getPeriodStart();
+        LocalDate end;
+        switch (type) {
+            case MONTHLY -> {
+                // Legacy month + year body; a missing year (0) means this year, as in SchemaMigrations
+                if (start == null && from.getYear() > 9999) throw badRequest("year must be at most 9999");
+                int year = from.getYear() > 0 ? from.getYear() : Year.now().getValue();
+                YearMonth ym = start != null ? YearMonth.from(start) : YearMonth.of(year, monthOf(from.getMonth()));
+                start = ym.atDay(1);
+                end = ym.atEndOfMonth();
+            }
+            case WEEKLY -> {
+                if (start == null) throw badRequest("periodStart is required for WEEKLY budgets");
+                start = type.startOf(start);
+                end = type.endOf(start);
+            }
+            default -> {
+                end = from.getPeriodEnd();
+                if (start == null || end == null || end.isBefore(start)) {
+                    throw badRequest("CUSTOM budgets need periodStart <= periodEnd");
+                }
+            }
         }
-        return budgets;
+        to.setPeriodType(type);
+        to.setPeriodStart(start);
+        to.setPeriodEnd(end);
+        to.setMonth(start.getMonth().name());
+        to.setYear(start.getYear());
+    }
+
+    private static Month monthOf(String month) {
+        if (month != null) {
+            try {
+                return Month.valueOf(month.trim().toUpperCase(Locale.ROOT));   // "OCTOBER"
+            } catch (IllegalArgumentException ignored) {
+                // fall through
+            }
+        }
+        throw badRequest("month must be a month name such as OCTOBER");
+    }
+
+    // 🟢 Helper: expense total for the budget's category and period, written in SQL inside
+    // the caller's transaction. The UPDATE holds the budget row and InnoDB reads the
+    // subquery's transactions with shared locks, so a concurrent transaction write is
+    // either summed here or applies its delta (applySpending) after this commits.
+    private Money recomputeSpent(Long budgetId) {
+        jdbc.update("""
+                UPDATE budgets b SET b.spent_amount_minor = (
+                    SELECT COALESCE(SUM(t.amount_minor), 0) FROM transactions t
+                    WHERE t.user_id = b.user_id AND t.category_id = b.category_id AND t.type_code = ?
+                      AND t.date BETWEEN b.period_start AND b.period_end)
+                WHERE b.id = ?
+                """, TransactionType.EXPENSE.code(), budgetId);
+        return Money.ofMinor(jdbc.queryForObject("SELECT spent_amount_minor FROM budgets WHERE id = ?",
+                Long.class, budgetId));
+    }
+
+    // 🟢 Delta maintenance of spent_amount_minor. Must run inside the transaction that
+    // changes the rows: removed = rows as they were (deleted, or before an edit),
+    // added = rows as they are now. Returns budget id → change in minor units.
+    public Map<Long, Long> applySpending(Long userId, Collection<TransactionView> removed,
+                                         Collection<Transaction> added) {
+        // (category id, date) → delta: a bulk insert on one day is one entry
+        Map<Integer, Map<LocalDate, Long>> deltas = new HashMap<>();
+        for (TransactionView t : removed) {
+            addDelta(deltas, t.type(), t.categoryId(), t.date(), t.amount(), -1);
+        }
+        for (Transaction t : added) {
+            addDelta(deltas, t.getType(), t.getCategoryRef() != null ? t.getCategoryRef().getId() : null,
+                    t.getDate(), t.getAmount(), 1);
+        }
+        if (deltas.isEmpty()) return Map.of();
+
+        // Periods read from the row, not the second-level cache, and locked, so an edit
+        // on another node is never missed and an edit in progress is waited for
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        args.addAll(deltas.keySet());
+        String in = String.join(", ", Collections.nCopies(deltas.size(), "?"));
+
+        Map<Long, Long> byBudget = new HashMap<>();
+        jdbc.query("SELECT id, category_id, period_start, period_end FROM budgets"
+                + " WHERE user_id = ? AND category_id IN (" + in + ") AND period_start IS NOT NULL FOR UPDATE", rs -> {
+            LocalDate start = rs.getDate(3).toLocalDate();
+            LocalDate end = rs.getDate(4).toLocalDate();
+            long sum = 0;
+            for (Map.Entry<LocalDate, Long> d : deltas.get(rs.getInt(2)).entrySet()) {
+                if (!d.getKey().isBefore(start) && !d.getKey().isAfter(end)) sum = Math.addExact(sum, d.getValue());
+            }
+            if (sum != 0) byBudget.put(rs.getLong(1), sum);
+        }, args.toArray());
+        if (byBudget.isEmpty()) return Map.of();
+
+        // Relative updates: concurrent writers never lose each other's deltas
+        List<Object[]> updates = new ArrayList<>(byBudget.size());
+        byBudget.forEach((id, delta) -> updates.add(new Object[]{delta, id}));
+        jdbc.batchUpdate("UPDATE budgets SET spent_amount_minor = COALESCE(spent_amount_minor, 0) + ?"
+                + " WHERE id = ?", updates);
+        return byBudget;
+    }
+
+    // After the transaction that called applySpending has committed
+    public void spendingCommitted(Collection<Long> budgetIds) {
+        for (Long id : budgetIds) {
+            secondLevelCache.evictEntityData(Budget.class, id);
+            invalidationBus.publish(CacheInvalidationBus.BUDGET, id);
+        }
+    }
+
+    private static void addDelta(Map<Integer, Map<LocalDate, Long>> deltas, TransactionType type,
+                                 Integer categoryId, LocalDate date, Money amount, int sign) {
+        if (type != TransactionType.EXPENSE || categoryId == null || date == null || amount == null) return;
+        deltas.computeIfAbsent(categoryId, c -> new HashMap<>())
+                .merge(date, sign * amount.minor(), Math::addExact);
+    }
+
+    private static Integer idOf(Category c) {
+        return c != null ? c.getId() : null;
     }
 
-    // 🟢 Helper: calculate total spent
-    private double calculateSpent(String category, String month, String username) {
-        List<Transaction> userTx = txRepo.findByUserUsername(username);
-
-        return userTx.stream()
-                .filter(t -> "EXPENSE".equalsIgnoreCase(t.getType()))
-                .filter(t -> t.getCategory().equalsIgnoreCase(category))
-                .filter(t -> {
-                    if (t.getDate() == null) return false;
-                    String txMonth = Month.of(t.getDate().getMonthValue()).name(); // "OCTOBER"
-                    return txMonth.equalsIgnoreCase(month); // matches case-insensitive
-                })
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    private static ResponseStatusException badRequest(String message) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, message);
     }
 
-    public void deleteBudget(Long id) {
-        budgetRepo.deleteById(id);
+    public void deleteBudget(Long id, String username) {
+        Budget b = budgetRepo.findByIdAndUserUsername(id, username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Budget not found"));
+        budgetRepo.deleteById(b.getId());
+        invalidationBus.publish(CacheInvalidationBus.BUDGET, id);
+        dataVersions.bump(username);
+        budgetAlerts.invalidate(username);
     }
 }
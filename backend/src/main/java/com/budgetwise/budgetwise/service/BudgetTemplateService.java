@@ -0,0 +1,94 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.entity.BudgetPeriod;
+import com.budgetwise.budgetwise.entity.BudgetTemplate;
+import com.budgetwise.budgetwise.entity.User;
+import com.budgetwise.budgetwise.repository.BudgetTemplateRepository;
+import com.budgetwise.budgetwise.repository.UserRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@Service
+public class BudgetTemplateService {
+
+    private final BudgetTemplateRepository templateRepo;
+    private final UserRepository userRepo;
+    private final CategoryService categoryService;
+    private final BudgetRolloverJob rolloverJob;
+
+    public BudgetTemplateService(BudgetTemplateRepository templateRepo, UserRepository userRepo,
+                                 CategoryService categoryService, BudgetRolloverJob rolloverJob) {
+        this.templateRepo = templateRepo;
+        this.userRepo = userRepo;
+        this.categoryService = categoryService;
+        this.rolloverJob = rolloverJob;
+    }
+
+    @Transactional(readOnly = true)
+    public List<BudgetTemplate> getTemplates(String username) {
+        return templateRepo.findByUserUsernameOrderByIdAsc(username);
+    }
+
+    // 🟢 New template; the current period's budget is created right away (unless one exists)
+    public BudgetTemplate addTemplate(BudgetTemplate template, String username) {
+        User user = userRepo.findByUsername(username).orElseThrow();
+        template.setId(null);
+        template.setUser(user);
+        template.setCategoryRef(categoryService.resolve(user, template.getCategory()));
+        validate(template);
+
+        BudgetTemplate saved;
+        try {
+            saved = templateRepo.save(template);
+        } catch (DataIntegrityViolationException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A " + template.getPeriodType() + " template for this category already exists");
+        }
+        if (saved.isActive()) rolloverJob.rolloverNow(saved);
+        return saved;
+    }
+
+    // 🟢 Limit / carry-over / active only; takes effect from the next generated period
+    public BudgetTemplate updateTemplate(Long id, BudgetTemplate changes, Long expectedVersion, String username) {
+        BudgetTemplate t = templateRepo.findByIdAndUserUsername(id, username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Budget template not found"));
+        if (expectedVersion != null && !expectedVersion.equals(t.getVersion())) {
+            throw new VersionConflictException(t);
+        }
+        t.setLimitAmount(changes.getLimitAmount());
+        t.setCarryOver(changes.isCarryOver());
+        t.setActive(changes.isActive());
+        validate(t);
+        try {
+            return templateRepo.save(t);
+        } catch (OptimisticLockingFailureException lost) {
+            throw new VersionConflictException(templateRepo.findByIdAndUserUsername(id, username).orElse(null));
+        }
+    }
+
+    // Budgets already generated from the template are kept
+    public void deleteTemplate(Long id, String username) {
+        BudgetTemplate t = templateRepo.findByIdAndUserUsername(id, username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Budget template not found"));
+        templateRepo.delete(t);
+    }
+
+    private static void validate(BudgetTemplate t) {
+        if (t.getPeriodType() == null) t.setPeriodType(BudgetPeriod.MONTHLY);
+        if (t.getPeriodType() == BudgetPeriod.CUSTOM) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Templates repeat MONTHLY or WEEKLY");
+        }
+        if (t.getCategoryRef() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "category is required");
+        }
+        if (!t.getLimitAmount().isPositive()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limitAmount must be positive");
+        }
+    }
+}
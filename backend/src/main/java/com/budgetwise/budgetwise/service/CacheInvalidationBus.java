@@ -0,0 +1,115 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.entity.CacheInvalidationEvent;
+import com.budgetwise.budgetwise.repository.CacheInvalidationEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cross-node cache invalidation using only MySQL: writers append to
+ * cache_invalidation_log, every node polls it with a cursor and evicts
+ * what other nodes changed. Staleness is bounded by the poll interval.
+ */
+@Service
+public class CacheInvalidationBus {
+
+    // Regions → keys
+    public static final String USER = "user";           // user id
+    public static final String USER_DATA = "user-data"; // username (transactions, budgets, goals)
+    public static final String BUDGET = "budget";       // budget id
+    public static final String GOAL = "goal";           // goal id
+    public static final String FORUM = "forum";         // "posts"
+    public static final String BUDGETS_GENERATED = "budgets-generated"; // run key (rollover added budgets for many users)
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+    private static final int APPLIED_IDS_CAPACITY = 10_000;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final CacheInvalidationEventRepository repo;
+    private final List<CacheInvalidationListener> listeners;
+
+    @Value("${app.cache.invalidation.look-back-seconds:10}")
+    private long lookBackSeconds;
+
+    @Value("${app.cache.invalidation.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private long cursor = -1;
+
+    // ids already applied inside the look-back window (eviction is idempotent,
+    // this only avoids re-evicting hot entries on every poll)
+    private final Map<Long, Boolean> appliedIds = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > APPLIED_IDS_CAPACITY;
+        }
+    };
+
+    public CacheInvalidationBus(CacheInvalidationEventRepository repo,
+                                @Lazy List<CacheInvalidationListener> listeners) {
+        this.repo = repo;
+        this.listeners = listeners;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // Call after the write has committed. The writing node updates its own
+    // caches directly; listeners only see events from other nodes.
+    public void publish(String region, Object key) {
+        repo.save(new CacheInvalidationEvent(nodeId, region, String.valueOf(key)));
+    }
+
+    // Start from a known log position instead of "now", so nothing written
+    // between a snapshot restore and the first poll is missed
+    public synchronized void resumeFrom(long eventId) {
+        if (cursor < 0) cursor = eventId;
+    }
+
+    // Not read-only on purpose: polling the primary keeps replica lag out of the delay bound
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.poll-interval-ms:1000}")
+    @Transactional
+    public synchronized void poll() {
+        if (cursor < 0) {
+            cursor = repo.findMaxId();
+            return;
+        }
+
+        LocalDateTime since = LocalDateTime.now().minusSeconds(lookBackSeconds);
+        for (CacheInvalidationEvent e : repo.findNewerThan(cursor, since)) {
+            cursor = Math.max(cursor, e.getId());
+            if (nodeId.equals(e.getNodeId()) || appliedIds.put(e.getId(), Boolean.TRUE) != null) {
+                continue;
+            }
+            dispatch(e.getRegion(), e.getCacheKey());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.cleanup-interval-ms:600000}")
+    public void purgeExpired() {
+        int removed = repo.deleteOlderThan(LocalDateTime.now().minusMinutes(retentionMinutes));
+        if (removed > 0) log.debug("Purged {} cache invalidation events", removed);
+    }
+
+    private void dispatch(String region, String key) {
+        for (CacheInvalidationListener listener : listeners) {
+            try {
+                listener.onInvalidate(region, key);
+            } catch (Exception ex) {
+                log.warn("Cache invalidation failed for {}:{} - {}", region, key, ex.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.budgetwise.budgetwise.service;
+
+// Implemented by anything holding per-node cached state; called by the poller
+// for writes made on other nodes.
+public interface CacheInvalidationListener {
+
+    void onInvalidate(String region, String key);
+}
@@ -0,0 +1,108 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.entity.Category;
+import com.budgetwise.budgetwise.entity.User;
+import com.budgetwise.budgetwise.repository.CategoryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Case- and whitespace-insensitive resolve-or-create for the per-user
+ * category dictionary. "Food", "food " and "FOOD" all resolve to one row.
+ */
+@Service
+public class CategoryService {
+
+    private static final int MAX_NAME_LENGTH = 100;
+
+    private final CategoryRepository categoryRepo;
+    private final OptimisticRetry retry;
+    private final TransactionTemplate newTransaction;
+
+    // "userId:key" → category id. Categories are never deleted or re-keyed,
+    // so entries never go stale; misses are not cached.
+    private final Cache<String, Integer> ids = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .build();
+
+    public CategoryService(CategoryRepository categoryRepo, OptimisticRetry retry,
+                           PlatformTransactionManager txManager) {
+        this.categoryRepo = categoryRepo;
+        this.retry = retry;
+        this.newTransaction = new TransactionTemplate(txManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Null for a blank name (uncategorised)
+    public Category resolve(User user, String name) {
+        String key = Category.keyOf(name);
+        if (key.isEmpty()) return null;
+        if (key.length() > MAX_NAME_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Category name must be at most " + MAX_NAME_LENGTH + " characters");
+        }
+
+        String cacheKey = user.getId() + ":" + key;
+        Integer id = ids.getIfPresent(cacheKey);
+        if (id == null) {
+            id = categoryRepo.findIdByKey(user.getId(), key).orElseGet(() -> create(user, name, key));
+            ids.put(cacheKey, id);
+        }
+        Integer categoryId = id;
+        return categoryRepo.findById(categoryId)
+                .orElseThrow(() -> new RuntimeException("Category not found: " + categoryId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Category> list(User user) {
+        return categoryRepo.findByUserIdOrderByName(user.getId());
+    }
+
+    // Adding an alias commutes with any concurrent change, so version races are retried
+    public Category addAlias(User user, Integer categoryId, String alias) {
+        String key = Category.keyOf(alias);
+        if (key.length() > MAX_NAME_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Alias must be at most " + MAX_NAME_LENGTH + " characters");
+        }
+        return retry.run(() -> {
+            Category category = categoryRepo.findById(categoryId)
+                    .filter(c -> c.getUser().getId().equals(user.getId()))
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found"));
+            if (key.isEmpty() || key.equals(category.getNameKey())) return category;
+
+            categoryRepo.findIdByKey(user.getId(), key).ifPresent(existing -> {
+                if (!existing.equals(categoryId)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Alias already used by another category");
+                }
+            });
+            category.getAliases().add(key);
+            return category;
+        });
+    }
+
+    // Own transaction: a lost insert race rolls back only this insert
+    private Integer create(User user, String name, String key) {
+        try {
+            return newTransaction.execute(status -> {
+                Category c = new Category();
+                c.setUser(user);
+                c.setName(name.trim().replaceAll("\\s+", " "));
+                c.setNameKey(key);
+                return categoryRepo.saveAndFlush(c).getId();
+            });
+        } catch (DataIntegrityViolationException race) {
+            return categoryRepo.findIdByKey(user.getId(), key).orElseThrow(() -> race);
+        }
+    }
+}
@@ -5,16 +5,19 @@ import com.budgetwise.budgetwise.repository.UserRepository;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository repo;
+    private final CacheInvalidationBus invalidationBus;
 
-    public CustomUserDetailsService(UserRepository repo) {
+    public CustomUserDetailsService(UserRepository repo, CacheInvalidationBus invalidationBus) {
         this.repo = repo;
+        this.invalidationBus = invalidationBus;
     }
 
     @Override
@@ -32,4 +35,19 @@ public class CustomUserDetailsService implements UserDetailsService {
         );
     }
 
+    // 🟢 Login succeeded with a hash at an old BCrypt cost: store the new hash
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails details, String newEncodedPassword) {
+        User user = repo.findByUsername(details.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + details.getUsername()));
+        user.setPassword(newEncodedPassword);
+        repo.save(user);
+        invalidationBus.publish(CacheInvalidationBus.USER, user.getId());
+
+        return org.springframework.security.core.userdetails.User.withUserDetails(details)
+                .password(newEncodedPassword)
+                .build();
+    }
+
 }
@@ -0,0 +1,193 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.entity.Budget;
+import com.budgetwise.budgetwise.entity.Goal;
+import com.budgetwise.budgetwise.entity.Money;
+import com.budgetwise.budgetwise.entity.User;
+import com.budgetwise.budgetwise.repository.BudgetRepository;
+import com.budgetwise.budgetwise.repository.GoalRepository;
+import com.budgetwise.budgetwise.repository.TransactionRepository;
+import com.budgetwise.budgetwise.repository.TransactionView;
+import com.budgetwise.budgetwise.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Everything Dashboard.jsx needs in one response. The independent reads run
+ * in parallel and all aggregates come from one pass over the user's cached
+ * transaction columns.
+ */
+@Service
+public class DashboardService {
+
+    private static final int RECENT_SIZE = 5;
+
+    private final UserRepository userRepo;
+    private final TransactionRepository txRepo;
+    private final BudgetRepository budgetRepo;
+    private final GoalRepository goalRepo;
+    private final TransactionColumnCache columnCache;
+    private final AiPredictionService predictionService;
+    private final AsyncTaskExecutor executor;
+
+    public DashboardService(UserRepository userRepo,
+                            TransactionRepository txRepo,
+                            BudgetRepository budgetRepo,
+                            GoalRepository goalRepo,
+                            TransactionColumnCache columnCache,
+                            AiPredictionService predictionService,
+                            @Qualifier("readFanOutExecutor") AsyncTaskExecutor executor) {
+        this.userRepo = userRepo;
+        this.txRepo = txRepo;
+        this.budgetRepo = budgetRepo;
+        this.goalRepo = goalRepo;
+        this.columnCache = columnCache;
+        this.predictionService = predictionService;
+        this.executor = executor;
+    }
+
+    public Map<String, Object> getSnapshot(String username) {
+        CompletableFuture<User> userF = CompletableFuture.supplyAsync(
+                () -> userRepo.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found")),
+                executor);
+        CompletableFuture<TransactionColumns> colsF = CompletableFuture.supplyAsync(
+                () -> columnCache.get(username), executor);
+        CompletableFuture<List<TransactionView>> recentF = CompletableFuture.supplyAsync(
+                () -> txRepo.findRecentViews(username, PageRequest.of(0, RECENT_SIZE)), executor);
+        CompletableFuture<List<Budget>> budgetsF = CompletableFuture.supplyAsync(
+                () -> budgetRepo.findByUserUsername(username), executor);
+        CompletableFuture<List<Goal>> goalsF = CompletableFuture.supplyAsync(
+                () -> goalRepo.findByUserUsername(username), executor);
+
+        try {
+            CompletableFuture.allOf(userF, colsF, recentF, budgetsF, goalsF).join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException re ? re : ex;
+        }
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("profile", profile(userF.join()));
+        snapshot.put("recentTransactions", recentF.join());
+        scan(colsF.join(), budgetsF.join(), snapshot);
+        snapshot.put("goals", goalProgress(goalsF.join()));
+        return snapshot;
+    }
+
+    // ---------- single pass over the columns ----------
+    private void scan(TransactionColumns cols, List<Budget> budgets, Map<String, Object> out) {
+        int categories = cols.categoryCount();
+        long income = 0, expense = 0;
+        long[] categoryExpense = new long[categories];
+        boolean[] categorySeen = new boolean[categories];
+
+        TransactionColumns.MonthlyTotals incomeSeries = cols.monthly(TransactionColumns.INCOME);
+        TransactionColumns.MonthlyTotals expenseSeries = cols.monthly(TransactionColumns.NOT_INCOME);
+
+        for (int i = 0; i < cols.size(); i++) {
+            long amount = cols.amount(i);
+            if (cols.is(i, TransactionColumns.INCOME)) {
+                income = Math.addExact(income, amount);
+            } else if (cols.is(i, TransactionColumns.EXPENSE)) {
+                int c = cols.category(i);
+                expense = Math.addExact(expense, amount);
+                categoryExpense[c] = Math.addExact(categoryExpense[c], amount);
+                categorySeen[c] = true;
+            }
+        }
+
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("income", TransactionColumns.toMajor(income));
+        totals.put("expense", TransactionColumns.toMajor(expense));
+        totals.put("balance", TransactionColumns.toMajor(income - expense));
+        out.put("totals", totals);
+
+        Map<String, Double> categoryTotals = new HashMap<>();
+        for (int c = 0; c < categories; c++) {
+            if (categorySeen[c]) categoryTotals.put(cols.categoryName(c), TransactionColumns.toMajor(categoryExpense[c]));
+        }
+        out.put("categoryTotals", categoryTotals);
+
+        out.put("monthlySeries", monthlySeries(incomeSeries, expenseSeries));
+        out.put("budgets", budgetUtilization(budgets));
+
+        // Same model selection as /api/ai/predict-expenses; null without enough history
+        out.put("nextMonthPrediction", predictionService.nextMonthExpense(cols));
+    }
+
+    private List<Map<String, Object>> monthlySeries(TransactionColumns.MonthlyTotals income,
+                                                    TransactionColumns.MonthlyTotals expense) {
+        int first = Math.min(income.totals.length == 0 ? Integer.MAX_VALUE : income.firstMonth,
+                expense.totals.length == 0 ? Integer.MAX_VALUE : expense.firstMonth);
+        int last = Math.max(income.firstMonth + income.totals.length - 1,
+                expense.firstMonth + expense.totals.length - 1);
+
+        List<Map<String, Object>> series = new ArrayList<>();
+        for (int key = first; key <= last && first != Integer.MAX_VALUE; key++) {
+            int ii = key - income.firstMonth, ei = key - expense.firstMonth;
+            boolean hasIncome = ii >= 0 && ii < income.totals.length && income.counts[ii] > 0;
+            boolean hasExpense = ei >= 0 && ei < expense.totals.length && expense.counts[ei] > 0;
+            if (!hasIncome && !hasExpense) continue;
+
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("month", TransactionColumns.toYearMonth(key).toString());
+            m.put("income", hasIncome ? TransactionColumns.toMajor(income.totals[ii]) : 0.0);
+            m.put("expense", hasExpense ? TransactionColumns.toMajor(expense.totals[ei]) : 0.0);
+            series.add(m);
+        }
+        return series;
+    }
+
+    // Spent is stored on the budget and kept current by transaction writes
+    private List<Map<String, Object>> budgetUtilization(List<Budget> budgets) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Budget b : budgets) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("id", b.getId());
+            m.put("category", b.getCategory());
+            m.put("month", b.getMonth());
+            m.put("year", b.getYear());
+            m.put("periodType", b.getPeriodType());
+            m.put("periodStart", b.getPeriodStart());
+            m.put("periodEnd", b.getPeriodEnd());
+            m.put("limitAmount", b.getLimitAmount());
+            m.put("spentAmount", b.getSpentAmount());
+            m.put("utilization", percent(b.getSpentAmount().minor(), b.getLimitAmount()));
+            result.add(m);
+        }
+        return result;
+    }
+
+    private List<Map<String, Object>> goalProgress(List<Goal> goals) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Goal g : goals) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("id", g.getId());
+            m.put("goalName", g.getGoalName());
+            m.put("targetAmount", g.getTargetAmount());
+            m.put("savedAmount", g.getSavedAmount());
+            m.put("deadline", g.getDeadline());
+            m.put("progress", percent(g.getSavedAmount().minor(), g.getTargetAmount()));
+            result.add(m);
+        }
+        return result;
+    }
+
+    private Map<String, Object> profile(User user) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", user.getId());
+        m.put("username", user.getUsername());
+        m.put("email", user.getEmail());
+        m.put("role", user.getRole());
+        return m;
+    }
+
+    private static double percent(long partMinor, Money whole) {
+        return whole.isPositive() ? partMinor * 100.0 / whole.minor() : 0;
+    }
+}
@@ -0,0 +1,69 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.config.ReplicaRoutingDataSource;
+import com.budgetwise.budgetwise.entity.UserDataVersion;
+import com.budgetwise.budgetwise.repository.UserDataVersionRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user data version used as the ETag for read endpoints. Versions are
+ * cached per node and dropped through the invalidation bus, so another
+ * node's write is visible here within the bus poll interval. The reload
+ * always reads the primary: a version from a lagging replica would be cached
+ * until the next bump and keep answering 304 for data that has changed.
+ */
+@Service
+public class DataVersionService implements CacheInvalidationListener {
+
+    private final UserDataVersionRepository repo;
+    private final CacheInvalidationBus invalidationBus;
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+
+    public DataVersionService(UserDataVersionRepository repo, CacheInvalidationBus invalidationBus) {
+        this.repo = repo;
+        this.invalidationBus = invalidationBus;
+    }
+
+    public long current(String username) {
+        return versions.computeIfAbsent(username, u -> ReplicaRoutingDataSource.onPrimary(
+                () -> repo.findById(u).map(UserDataVersion::getVersion).orElse(0L)));
+    }
+
+    // Weak: equal versions mean equal data, not byte-identical JSON
+    public String etag(String username) {
+        return "W/\"" + current(username) + "\"";
+    }
+
+    // Call after any write to the user's transactions, budgets or goals has committed
+    public void bump(String username) {
+        if (repo.increment(username) == 0) {
+            try {
+                repo.save(new UserDataVersion(username, 1));
+            } catch (DataIntegrityViolationException ex) {
+                // another request created the row first
+                repo.increment(username);
+            }
+        }
+        versions.remove(username);
+        invalidationBus.publish(CacheInvalidationBus.USER_DATA, username);
+    }
+
+    // Versions bumped in bulk outside bump() (the budget rollover job); each is
+    // re-read on the user's next request
+    public void forgetAll() {
+        versions.clear();
+    }
+
+    @Override
+    public void onInvalidate(String region, String key) {
+        if (CacheInvalidationBus.USER_DATA.equals(region)) {
+            versions.remove(key);
+        } else if (CacheInvalidationBus.BUDGETS_GENERATED.equals(region)) {
+            versions.clear();
+        }
+    }
+}
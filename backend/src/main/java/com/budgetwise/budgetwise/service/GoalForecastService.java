@@ -0,0 +1,297 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.entity.Goal;
+import com.budgetwise.budgetwise.entity.Money;
+import com.budgetwise.budgetwise.repository.GoalRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Monte Carlo forecast of whether each goal is reached by its deadline.
+ *
+ * Each simulated path draws future months from the user's own history: a
+ * random past month contributes its income and expense together (so months
+ * with big spending and big income stay paired). The month's net flow goes
+ * to the goals in deadline order; a bad month leaves a deficit that later
+ * months pay off first. Nothing is withdrawn from goals.
+ *
+ * Paths run on a dedicated fork-join pool. The RNG is a SplittableRandom
+ * split along the task tree, so a given seed gives the same answer however
+ * the work is scheduled. The per-path loop only touches arrays allocated
+ * once per leaf task. Results are cached per user and reused until the
+ * user's data version moves.
+ */
+@Service
+public class GoalForecastService {
+
+    private static final int LEAF_PATHS = 256;
+
+    private final TransactionColumnCache columnCache;
+    private final GoalRepository goalRepo;
+    private final DataVersionService dataVersions;
+    private final ForkJoinPool pool;
+    private final Cache<String, Cached> results;
+    private final int defaultPaths;
+    private final int maxPaths;
+    private final long maxCells;
+    private final int historyMonths;
+    private final int maxHorizonMonths;
+    private final long baseSeed;
+
+    public GoalForecastService(TransactionColumnCache columnCache, GoalRepository goalRepo,
+                               DataVersionService dataVersions,
+                               @Value("${app.goal-forecast.paths:10000}") int defaultPaths,
+                               @Value("${app.goal-forecast.max-paths:20000}") int maxPaths,
+                               @Value("${app.goal-forecast.max-cells:2000000}") long maxCells,
+                               @Value("${app.goal-forecast.history-months:24}") int historyMonths,
+                               @Value("${app.goal-forecast.max-horizon-months:120}") int maxHorizonMonths,
+                               @Value("${app.goal-forecast.parallelism:0}") int parallelism,
+                               @Value("${app.goal-forecast.cache-size:10000}") long cacheSize,
+                               @Value("${app.goal-forecast.seed:20250101}") long baseSeed) {
+        this.columnCache = columnCache;
+        this.goalRepo = goalRepo;
+        this.dataVersions = dataVersions;
+        this.defaultPaths = defaultPaths;
+        this.maxPaths = maxPaths;
+        this.maxCells = maxCells;
+        this.historyMonths = historyMonths;
+        this.maxHorizonMonths = maxHorizonMonths;
+        this.baseSeed = baseSeed;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.results = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    // A result and the inputs it was computed for
+    private record Cached(long dataVersion, int paths, long seed, Map<String, Object> result) {}
+
+    // One goal still open, as the simulation sees it
+    private record OpenGoal(Goal goal, long need, int deadlineMonth) {}
+
+    // 🟢 paths / seed are optional; the same data, paths and seed always give the same numbers
+    public Map<String, Object> forecast(String username, Integer requestedPaths, Long requestedSeed) {
+        int paths = Math.min(Math.max(requestedPaths != null ? requestedPaths : defaultPaths, LEAF_PATHS), maxPaths);
+        long seed = requestedSeed != null ? requestedSeed : baseSeed ^ username.hashCode();
+
+        // Version read before the data, as the ETag interceptor does
+        long version = dataVersions.current(username);
+        Cached hit = results.getIfPresent(username);
+        if (hit != null && hit.dataVersion() == version && hit.paths() == paths && hit.seed() == seed) {
+            return hit.result();
+        }
+        Map<String, Object> result = compute(username, paths, seed);
+        results.put(username, new Cached(version, paths, seed, result));
+        return result;
+    }
+
+    private Map<String, Object> compute(String username, int paths, long seed) {
+        int thisMonth = TransactionColumns.monthKey(YearMonth.now());
+
+        // Step 1: last full months of income and expense, month by month
+        TransactionColumns cols = columnCache.get(username);
+        TransactionColumns.MonthlyTotals in = cols.monthly(TransactionColumns.INCOME);
+        TransactionColumns.MonthlyTotals out = cols.monthly(TransactionColumns.NOT_INCOME);
+        int first = Math.min(firstMonth(in, thisMonth), firstMonth(out, thisMonth));
+        first = Math.max(first, thisMonth - historyMonths);
+        int months = thisMonth - first;   // the current month is incomplete, so it is left out
+        if (months < 3) {
+            return Map.of("error", "Need at least three full months of transactions to forecast.");
+        }
+        long[] income = new long[months];
+        long[] expense = new long[months];
+        for (int m = 0; m < months; m++) {
+            income[m] = totalFor(in, first + m);
+            expense[m] = totalFor(out, first + m);
+        }
+
+        // Step 2: goals still to reach, earliest deadline first (they are funded first)
+        List<Map<String, Object>> goalResults = new ArrayList<>();
+        List<OpenGoal> open = new ArrayList<>();
+        for (Goal g : goalRepo.findByUserUsername(username)) {
+            long need = g.getTargetAmount().minor() - g.getSavedAmount().minor();
+            if (need <= 0) {
+                goalResults.add(goalResult(g, 1.0, null, "Already reached"));
+            } else if (g.getDeadline() == null) {
+                goalResults.add(goalResult(g, null, null, "No deadline set"));
+            } else if (g.getDeadline().isBefore(LocalDate.now())) {
+                goalResults.add(goalResult(g, 0.0, null, "Deadline has passed"));
+            } else {
+                int deadlineMonth = TransactionColumns.monthKey(YearMonth.from(g.getDeadline())) - thisMonth;
+                if (deadlineMonth > maxHorizonMonths) {
+                    goalResults.add(goalResult(g, null, null, "Deadline too far out"));
+                } else {
+                    open.add(new OpenGoal(g, need, deadlineMonth));
+                }
+            }
+        }
+        open.sort(Comparator.comparingInt(OpenGoal::deadlineMonth));
+
+        // Step 3: simulate. savedAt holds goals * paths longs, so many goals get fewer paths
+        int goals = open.size();
+        if (goals > 0) {
+            paths = (int) Math.max(1, Math.min(paths, maxCells / goals));
+            long[] need = new long[goals];
+            int[] deadline = new int[goals];
+            for (int g = 0; g < goals; g++) {
+                need[g] = open.get(g).need();
+                deadline[g] = open.get(g).deadlineMonth();
+            }
+            // savedAt[g * paths + p] = amount put towards goal g by its deadline on path p
+            long[] savedAt = new long[goals * paths];
+            pool.invoke(new PathTask(income, expense, need, deadline, savedAt, paths, 0, paths, new SplittableRandom(seed)));
+
+            for (int g = 0; g < goals; g++) {
+                long[] slice = Arrays.copyOfRange(savedAt, g * paths, (g + 1) * paths);
+                Arrays.sort(slice);
+                int reached = slice.length - lowerBound(slice, need[g]);
+                Goal goal = open.get(g).goal();
+                long saved = goal.getSavedAmount().minor();
+                Map<String, Object> bands = new LinkedHashMap<>();
+                bands.put("p10", Money.ofMinor(saved + percentile(slice, 10)));
+                bands.put("p50", Money.ofMinor(saved + percentile(slice, 50)));
+                bands.put("p90", Money.ofMinor(saved + percentile(slice, 90)));
+                Map<String, Object> r = goalResult(goal, reached / (double) paths, bands, null);
+                r.put("monthsLeft", deadline[g]);
+                r.put("requiredPerMonth", Money.ofMinor(deadline[g] > 0 ? ceilDiv(need[g], deadline[g]) : need[g]));
+                goalResults.add(r);
+            }
+        }
+
+        long[] net = new long[months];
+        for (int m = 0; m < months; m++) net[m] = income[m] - expense[m];
+        long[] sortedNet = net.clone();
+        Arrays.sort(sortedNet);
+        Map<String, Object> monthlyNet = new LinkedHashMap<>();
+        monthlyNet.put("mean", Money.ofMinor(Math.round(Arrays.stream(net).average().orElse(0))));
+        monthlyNet.put("p10", Money.ofMinor(percentile(sortedNet, 10)));
+        monthlyNet.put("p50", Money.ofMinor(percentile(sortedNet, 50)));
+        monthlyNet.put("p90", Money.ofMinor(percentile(sortedNet, 90)));
+
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("paths", paths);
+        res.put("seed", seed);
+        res.put("historyMonths", months);
+        res.put("historyFrom", TransactionColumns.toYearMonth(first));
+        res.put("monthlyNet", monthlyNet);
+        res.put("goals", goalResults);
+        return res;
+    }
+
+    // ---------- simulation ----------
+
+    // Paths [from, to). Splits until LEAF_PATHS; the left half takes rng.split()
+    // before anything runs, so the RNG tree is fixed by the seed alone.
+    private static final class PathTask extends RecursiveAction {
+        private final long[] income, expense, need, savedAt;
+        private final int[] deadline;
+        private final int paths, from, to;
+        private final SplittableRandom rng;
+
+        PathTask(long[] income, long[] expense, long[] need, int[] deadline, long[] savedAt,
+                 int paths, int from, int to, SplittableRandom rng) {
+            this.income = income;
+            this.expense = expense;
+            this.need = need;
+            this.deadline = deadline;
+            this.savedAt = savedAt;
+            this.paths = paths;
+            this.from = from;
+            this.to = to;
+            this.rng = rng;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_PATHS) {
+                int mid = (from + to) >>> 1;
+                PathTask left = new PathTask(income, expense, need, deadline, savedAt, paths, from, mid, rng.split());
+                PathTask right = new PathTask(income, expense, need, deadline, savedAt, paths, mid, to, rng);
+                invokeAll(left, right);
+                return;
+            }
+
+            int goals = need.length;
+            int horizon = deadline[goals - 1];   // goals are sorted by deadline
+            int history = income.length;
+            long[] remaining = new long[goals];  // reused by every path of this leaf
+            int dueNow = 0;                      // deadline this month: nothing more gets added
+            while (dueNow < goals && deadline[dueNow] == 0) dueNow++;
+
+            for (int p = from; p < to; p++) {
+                System.arraycopy(need, 0, remaining, 0, goals);
+                long pool = 0;      // unassigned money; negative = deficit to pay off first
+                int next = dueNow;  // first goal whose deadline has not passed
+                for (int m = 1; m <= horizon; m++) {
+                    int k = rng.nextInt(history);
+                    pool += income[k] - expense[k];
+                    for (int g = next; g < goals && pool > 0; g++) {
+                        long put = Math.min(pool, remaining[g]);
+                        remaining[g] -= put;
+                        pool -= put;
+                    }
+                    while (next < goals && deadline[next] == m) {
+                        savedAt[next * paths + p] = need[next] - remaining[next];
+                        next++;
+                    }
+                }
+            }
+        }
+    }
+
+    // ---------- helpers ----------
+
+    private static Map<String, Object> goalResult(Goal g, Double probability, Map<String, Object> bands, String note) {
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("id", g.getId());
+        r.put("goalName", g.getGoalName());
+        r.put("targetAmount", g.getTargetAmount());
+        r.put("savedAmount", g.getSavedAmount());
+        r.put("deadline", g.getDeadline());
+        r.put("probability", probability);
+        if (bands != null) r.put("savedByDeadline", bands);
+        if (note != null) r.put("note", note);
+        return r;
+    }
+
+    private static int firstMonth(TransactionColumns.MonthlyTotals t, int fallback) {
+        return t.totals.length > 0 ? t.firstMonth : fallback;
+    }
+
+    private static long totalFor(TransactionColumns.MonthlyTotals t, int monthKey) {
+        int i = monthKey - t.firstMonth;
+        return i >= 0 && i < t.totals.length ? t.totals[i] : 0;
+    }
+
+    // Nearest-rank percentile of a sorted array
+    private static long percentile(long[] sorted, int pct) {
+        int rank = (int) Math.ceil(pct / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    // First index whose value is >= key
+    private static int lowerBound(long[] sorted, long key) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return -Math.floorDiv(-a, b);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -1,33 +1,232 @@
 package com.budgetwise.budgetwise.service;
 
 import com.budgetwise.budgetwise.entity.Goal;
+import com.budgetwise.budgetwise.entity.GoalContribution;
+import com.budgetwise.budgetwise.entity.Money;
 import com.budgetwise.budgetwise.entity.User;
+import com.budgetwise.budgetwise.repository.GoalContributionRepository;
 import com.budgetwise.budgetwise.repository.GoalRepository;
+import com.budgetwise.budgetwise.repository.TransactionRepository;
+import com.budgetwise.budgetwise.repository.TransactionView;
 import com.budgetwise.budgetwise.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class GoalService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final GoalRepository goalRepo;
+    private final GoalContributionRepository contributionRepo;
     private final UserRepository userRepo;
+    private final TransactionRepository txRepo;
+    private final CacheInvalidationBus invalidationBus;
+    private final DataVersionService dataVersions;
+    private final LiveEventService liveEvents;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate writeTx;
+    private final Cache secondLevelCache;
 
-    public GoalService(GoalRepository goalRepo, UserRepository userRepo) {
+    public GoalService(GoalRepository goalRepo, GoalContributionRepository contributionRepo,
+                       UserRepository userRepo, TransactionRepository txRepo,
+                       CacheInvalidationBus invalidationBus, DataVersionService dataVersions,
+                       LiveEventService liveEvents, DataSource dataSource, EntityManagerFactory emf,
+                       PlatformTransactionManager txManager) {
         this.goalRepo = goalRepo;
+        this.contributionRepo = contributionRepo;
         this.userRepo = userRepo;
+        this.txRepo = txRepo;
+        this.invalidationBus = invalidationBus;
+        this.dataVersions = dataVersions;
+        this.liveEvents = liveEvents;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.writeTx = new TransactionTemplate(txManager);
+        this.secondLevelCache = emf.unwrap(SessionFactory.class).getCache();
     }
 
+    // Goal progress as stored right after a contribution
+    private record Progress(long saved, long target, long version) {}
+
+    // 🟢 A savedAmount sent with a new goal becomes its opening contribution
     public Goal addGoal(Goal goal, String username) {
         User user = userRepo.findByUsername(username).orElseThrow();
+        if (goal.getSavedAmount().minor() < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "savedAmount cannot be negative");
+        }
+        goal.setId(null);
         goal.setUser(user);
-        return goalRepo.save(goal);
+        Goal saved = writeTx.execute(s -> {
+            Goal g = goalRepo.save(goal);
+            if (g.getSavedAmount().isPositive()) {
+                GoalContribution opening = new GoalContribution();
+                opening.setGoal(g);
+                opening.setAmount(g.getSavedAmount());
+                opening.setNote("Opening balance");
+                opening.setDate(LocalDate.now());
+                contributionRepo.save(opening);
+            }
+            return g;
+        });
+        invalidationBus.publish(CacheInvalidationBus.GOAL, saved.getId());
+        dataVersions.bump(username);
+        publishProgress(username, saved.getId(),
+                new Progress(saved.getSavedAmount().minor(), saved.getTargetAmount().minor(), saved.getVersion()));
+        return saved;
+    }
+
+    // 409 with the current row if expectedVersion is stale. savedAmount is not
+    // editable here: money moves through contributions only.
+    public Goal updateGoal(Long id, Goal changes, Long expectedVersion, String username) {
+        Goal g = goalRepo.findByIdAndUserUsername(id, username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Goal not found"));
+        if (expectedVersion != null && !expectedVersion.equals(g.getVersion())) {
+            throw new VersionConflictException(g);
+        }
+
+        g.setGoalName(changes.getGoalName());
+        g.setTargetAmount(changes.getTargetAmount());
+        g.setDeadline(changes.getDeadline());
+
+        Goal saved;
+        try {
+            saved = goalRepo.save(g);   // merge re-checks the version against the row
+        } catch (OptimisticLockingFailureException lost) {
+            throw new VersionConflictException(goalRepo.findByIdAndUserUsername(id, username).orElse(null));
+        }
+        invalidationBus.publish(CacheInvalidationBus.GOAL, id);
+        dataVersions.bump(username);
+        publishProgress(username, id,
+                new Progress(saved.getSavedAmount().minor(), saved.getTargetAmount().minor(), saved.getVersion()));
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public List<Goal> getGoals(String username) {
         return goalRepo.findByUserUsername(username);
     }
 
-    public void deleteGoal(Long id) {
-        goalRepo.deleteById(id);
+    // 🟢 Deposit (positive) or withdrawal (negative). With a transactionId and no
+    // amount, the transaction's amount is deposited. Progress moves by one relative
+    // UPDATE, so concurrent contributions on any node all count.
+    public GoalContribution contribute(Long goalId, GoalContribution c, String username) {
+        User user = userRepo.findByUsername(username).orElseThrow();
+        c.setId(null);
+        if (c.getDate() == null) c.setDate(LocalDate.now());
+
+        Progress[] after = new Progress[1];
+        GoalContribution saved;
+        try {
+            saved = writeTx.execute(s -> {
+                if (c.getTransactionId() != null) {
+                    TransactionView tx = txRepo.findOwnedView(c.getTransactionId(), user.getId())
+                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Transaction not found"));
+                    if (c.getAmount() == null) c.setAmount(tx.amount());
+                }
+                if (c.getAmount() == null || c.getAmount().minor() == 0) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "amount must be non-zero");
+                }
+                after[0] = moveSaved(goalId, user.getId(), c.getAmount().minor());
+                c.setGoal(goalRepo.getReferenceById(goalId));
+                return contributionRepo.save(c);
+            });
+        } catch (DataIntegrityViolationException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "That transaction is already linked to a goal");
+        }
+        progressChanged(username, goalId, after[0]);
+        return saved;
+    }
+
+    // 🟢 Undo a contribution: the row goes and its amount is taken back out
+    public void removeContribution(Long goalId, Long contributionId, String username) {
+        User user = userRepo.findByUsername(username).orElseThrow();
+        Progress after = writeTx.execute(s -> {
+            GoalContribution c = contributionRepo.findByIdAndGoalId(contributionId, goalId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contribution not found"));
+            Progress p = moveSaved(goalId, user.getId(), -c.getAmount().minor());
+            contributionRepo.delete(c);
+            return p;
+        });
+        progressChanged(username, goalId, after);
+    }
+
+    // 🟢 Contribution history, newest first
+    @Transactional(readOnly = true)
+    public Map<String, Object> getContributions(Long goalId, String username, int page, int size) {
+        goalRepo.findByIdAndUserUsername(goalId, username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Goal not found"));
+        Page<GoalContribution> p = contributionRepo.findByGoalIdOrderByIdDesc(goalId,
+                PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE)));
+
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("items", p.getContent());
+        res.put("page", p.getNumber());
+        res.put("size", p.getSize());
+        res.put("totalItems", p.getTotalElements());
+        res.put("totalPages", p.getTotalPages());
+        return res;
+    }
+
+    // Relative update with ownership and the no-negative rule in the WHERE clause;
+    // must run inside the caller's transaction
+    private Progress moveSaved(Long goalId, Long userId, long delta) {
+        int rows = jdbc.update("UPDATE goals SET saved_amount_minor = COALESCE(saved_amount_minor, 0) + ?"
+                + " WHERE id = ? AND user_id = ? AND COALESCE(saved_amount_minor, 0) + ? >= 0",
+                delta, goalId, userId, delta);
+        if (rows == 0) {
+            Integer owned = jdbc.queryForObject("SELECT COUNT(*) FROM goals WHERE id = ? AND user_id = ?",
+                    Integer.class, goalId, userId);
+            if (owned == null || owned == 0) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Goal not found");
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot take out more than has been saved");
+        }
+        return jdbc.queryForObject("SELECT saved_amount_minor, target_amount_minor, version FROM goals WHERE id = ?",
+                (rs, i) -> new Progress(rs.getLong(1), rs.getLong(2), rs.getLong(3)), goalId);
+    }
+
+    // After commit: the cached entity was bypassed by the JDBC update
+    private void progressChanged(String username, Long goalId, Progress p) {
+        secondLevelCache.evictEntityData(Goal.class, goalId);
+        invalidationBus.publish(CacheInvalidationBus.GOAL, goalId);
+        dataVersions.bump(username);
+        publishProgress(username, goalId, p);
+    }
+
+    private void publishProgress(String username, Long goalId, Progress p) {
+        long percent = p.target() > 0 ? p.saved() * 100 / p.target() : 0;
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("id", goalId);
+        data.put("version", p.version());
+        data.put("percent", percent);
+        data.put("savedAmount", Money.ofMinor(p.saved()));
+        liveEvents.publish(username, LiveEventService.GOAL, data);
+    }
+
+    public void deleteGoal(Long id, String username) {
+        Goal g = goalRepo.findByIdAndUserUsername(id, username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Goal not found"));
+        writeTx.executeWithoutResult(s -> {
+            contributionRepo.deleteByGoal(id);
+            goalRepo.deleteById(g.getId());
+        });
+        invalidationBus.publish(CacheInvalidationBus.GOAL, id);
+        dataVersions.bump(username);
     }
 }
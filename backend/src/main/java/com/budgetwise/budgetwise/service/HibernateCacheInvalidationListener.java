@@ -0,0 +1,37 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.entity.Budget;
+import com.budgetwise.budgetwise.entity.Goal;
+import com.budgetwise.budgetwise.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+// Keeps the Hibernate second-level cache in step with writes made on other nodes
+@Component
+public class HibernateCacheInvalidationListener implements CacheInvalidationListener {
+
+    private final Cache cache;
+
+    public HibernateCacheInvalidationListener(EntityManagerFactory emf) {
+        this.cache = emf.unwrap(SessionFactory.class).getCache();
+    }
+
+    @Override
+    public void onInvalidate(String region, String key) {
+        switch (region) {
+            case CacheInvalidationBus.USER -> cache.evictEntityData(User.class, Long.valueOf(key));
+            case CacheInvalidationBus.BUDGET -> {
+                cache.evictEntityData(Budget.class, Long.valueOf(key));
+                cache.evictQueryRegion("budget-lists");
+            }
+            case CacheInvalidationBus.GOAL -> {
+                cache.evictEntityData(Goal.class, Long.valueOf(key));
+                cache.evictQueryRegion("goal-lists");
+            }
+            case CacheInvalidationBus.BUDGETS_GENERATED -> cache.evictQueryRegion("budget-lists");
+            default -> { }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.config.ReplicaRoutingDataSource;
+import com.budgetwise.budgetwise.entity.IdempotencyRecord;
+import com.budgetwise.budgetwise.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key support for create-style endpoints. The first request for a
+ * (user, key) claims a row in idempotency_keys, runs, and stores its response;
+ * retries get that response back without running again. Completed responses
+ * are also kept in a bounded in-memory cache so hot retries skip the database.
+ *
+ * Write paths call completeInTransaction() inside their own transaction, so
+ * the stored response commits together with the rows: once they exist the key
+ * is never released, whatever happens afterwards.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 100;
+    // An IN_PROGRESS claim older than this belonged to a request that died mid-way
+    private static final Duration IN_PROGRESS_LEASE = Duration.ofMinutes(2);
+
+    private final IdempotencyRecordRepository repo;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final int sweepBatchSize;
+    private final Cache<String, StoredResponse> completed;
+    // The claim of the request running on this thread, for completeInTransaction()
+    private final ThreadLocal<Pending> pending = new ThreadLocal<>();
+
+    public IdempotencyService(IdempotencyRecordRepository repo,
+                              ObjectMapper objectMapper,
+                              @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${app.idempotency.cache-size:10000}") long cacheSize,
+                              @Value("${app.idempotency.sweep-batch-size:1000}") int sweepBatchSize) {
+        this.repo = repo;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.sweepBatchSize = sweepBatchSize;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    private record StoredResponse(String requestHash, int status, String body) {}
+
+    private static final class Pending {
+        final Long claimId;
+        final String requestHash;
+        volatile StoredResponse committed;   // set once the write transaction has committed
+
+        Pending(Long claimId, String requestHash) {
+            this.claimId = claimId;
+            this.requestHash = requestHash;
+        }
+    }
+
+    /**
+     * Runs action once per (username, key). Without a key the action just runs.
+     * Replays carry Idempotent-Replayed: true; a key reused for a different
+     * request is 422, and a retry while the first attempt is still running is 409.
+     */
+    public ResponseEntity<?> execute(String username, String key, String route, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) return action.get();
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, HEADER + " is too long");
+        }
+
+        String cacheKey = username + '\n' + key;
+        String hash = hash(route, request);
+
+        StoredResponse hit = completed.getIfPresent(cacheKey);
+        if (hit != null) return replay(hit, hash);
+
+        IdempotencyRecord claim = claim(username, key, hash);
+        if (claim.getStatus() != IdempotencyRecord.IN_PROGRESS || claim.getId() == null) {
+            return replay(new StoredResponse(claim.getRequestHash(), claim.getStatus(), claim.getResponseBody()), hash);
+        }
+
+        Pending p = new Pending(claim.getId(), hash);
+        ResponseEntity<?> response;
+        pending.set(p);
+        try {
+            response = action.get();
+        } catch (RuntimeException ex) {
+            // Released only if nothing was stored; otherwise a retry replays the stored response
+            if (p.committed == null) repo.deleteById(claim.getId());
+            throw ex;
+        } finally {
+            pending.remove();
+        }
+
+        if (p.committed != null) {
+            completed.put(cacheKey, p.committed);
+            return response;
+        }
+        // The action did not complete the key itself (it stored nothing)
+        String body = toJson(response.getBody());
+        int status = response.getStatusCode().value();
+        repo.complete(claim.getId(), status, body);
+        completed.put(cacheKey, new StoredResponse(hash, status, body));
+        return response;
+    }
+
+    // 🟢 Inside the write transaction, with the body the endpoint returns (200):
+    // completes this thread's claim in the same commit as the rows. No-op
+    // without an Idempotency-Key.
+    public void completeInTransaction(Object body) {
+        Pending p = pending.get();
+        if (p == null || !TransactionSynchronizationManager.isSynchronizationActive()) return;
+        String json = toJson(body);
+        repo.complete(p.claimId, HttpStatus.OK.value(), json);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                p.committed = new StoredResponse(p.requestHash, HttpStatus.OK.value(), json);
+            }
+        });
+    }
+
+    // Inserted IN_PROGRESS row, or the existing row for this key (id null = someone else's).
+    // Lookups read the primary: a replica may not have the row another node just inserted.
+    private IdempotencyRecord claim(String username, String key, String hash) {
+        var existing = ReplicaRoutingDataSource.onPrimary(() -> repo.findByUsernameAndIdempotencyKey(username, key));
+        if (existing.isPresent()) {
+            IdempotencyRecord r = existing.get();
+            LocalDateTime now = LocalDateTime.now();
+            boolean abandoned = r.getStatus() == IdempotencyRecord.IN_PROGRESS
+                    && r.getExpiresAt().minus(ttl).plus(IN_PROGRESS_LEASE).isBefore(now);
+            if (r.getExpiresAt().isAfter(now) && !abandoned) return detached(r);
+            repo.delete(r);   // expired but not swept yet, or left behind by a crashed node
+        }
+
+        try {
+            return repo.saveAndFlush(new IdempotencyRecord(username, key, hash, LocalDateTime.now().plus(ttl)));
+        } catch (DataIntegrityViolationException race) {
+            return ReplicaRoutingDataSource.onPrimary(() -> repo.findByUsernameAndIdempotencyKey(username, key))
+                    .map(this::detached)
+                    .orElseThrow(() -> race);
+        }
+    }
+
+    private IdempotencyRecord detached(IdempotencyRecord r) {
+        IdempotencyRecord copy = new IdempotencyRecord(r.getUsername(), r.getIdempotencyKey(),
+                r.getRequestHash(), r.getExpiresAt());
+        copy.setStatus(r.getStatus());
+        copy.setResponseBody(r.getResponseBody());
+        return copy;
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String hash) {
+        if (!stored.requestHash().equals(hash)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER + " was already used for a different request");
+        }
+        if (stored.status() == IdempotencyRecord.IN_PROGRESS) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with this " + HEADER + " is still being processed");
+        }
+        return ResponseEntity.status(stored.status())
+                .header(REPLAYED_HEADER, "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(stored.body());
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.sweep-interval-ms:600000}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now();
+        int total = 0, removed;
+        do {
+            removed = repo.deleteExpired(cutoff, sweepBatchSize);
+            total += removed;
+        } while (removed == sweepBatchSize);
+        if (total > 0) log.debug("Purged {} expired idempotency keys", total);
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Response is not serialisable", ex);
+        }
+    }
+
+    private String hash(String route, Object request) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(route.getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) '\n');
+            sha.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot hash request", ex);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.entity.JobLock;
+import com.budgetwise.budgetwise.entity.TransactionType;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Nightly precomputation of every user's insights (InsightService) into
+ * user_insights, so request-time reads are a primary-key lookup.
+ *
+ * Users are walked by id in partitions. For each partition the monthly
+ * expense sums per category are streamed from MySQL in user order (one
+ * GROUP BY query, never the raw transactions), and each user's series is
+ * handed to a small worker pool as soon as its last row has arrived; a
+ * semaphore keeps the stream from running ahead of the workers. The
+ * partition's rows are then upserted in one JDBC batch, in the same
+ * transaction that moves the job cursor, so a restarted run resumes after
+ * the last stored partition.
+ *
+ * Each row records the data version read before its aggregates, so a user
+ * who writes during the run simply gets a stale row and is recomputed on
+ * their next request.
+ */
+@Service
+public class InsightBatchJob {
+
+    private static final Logger log = LoggerFactory.getLogger(InsightBatchJob.class);
+    private static final String JOB = "insight-batch";
+
+    private final JobLockService jobLocks;
+    private final InsightService insights;
+    private final JdbcTemplate jdbc;
+    private final JdbcTemplate streaming;
+    private final TransactionTemplate partitionTx;
+    private final ExecutorService workers;
+    private final int parallelism;
+    private final int partitionSize;
+    private final Duration lease;
+
+    public InsightBatchJob(JobLockService jobLocks, InsightService insights, DataSource dataSource,
+                           PlatformTransactionManager txManager,
+                           @Value("${app.insight-batch.parallelism:4}") int parallelism,
+                           @Value("${app.insight-batch.partition-size:1000}") int partitionSize,
+                           @Value("${app.insight-batch.lease-minutes:10}") long leaseMinutes) {
+        this.jobLocks = jobLocks;
+        this.insights = insights;
+        this.jdbc = new JdbcTemplate(dataSource);
+        // MySQL Connector/J streams row by row only with this fetch size
+        this.streaming = new JdbcTemplate(dataSource);
+        this.streaming.setFetchSize(Integer.MIN_VALUE);
+        this.partitionTx = new TransactionTemplate(txManager);
+        this.parallelism = Math.max(1, parallelism);
+        this.partitionSize = partitionSize;
+        this.lease = Duration.ofMinutes(leaseMinutes);
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(this.parallelism, r -> {
+            Thread t = new Thread(r, "insight-batch-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private record UserRow(long id, String username) {}
+
+    // 🟢 Nightly run; a no-op on every node but the lease holder
+    @Scheduled(cron = "${app.insight-batch.cron:0 40 0 * * *}")
+    public void scheduledRun() {
+        try {
+            run();
+        } catch (RuntimeException ex) {
+            log.warn("Insight batch stopped: {}", ex.getMessage());
+        }
+    }
+
+    // 🟢 Also behind POST /api/admin/insight-batch
+    public Map<String, Object> run() {
+        YearMonth now = YearMonth.now();
+        String runKey = LocalDate.now().toString();
+
+        Optional<JobLock> lock = jobLocks.tryAcquire(JOB, lease);
+        if (lock.isEmpty()) {
+            return Map.of("status", "busy", "message", "Insight batch is running on another node");
+        }
+
+        int users = 0, failed = 0;
+        boolean finished = false;
+        long started = System.nanoTime();
+        try {
+            long cursor = JobLockService.resumeAfter(lock.get(), runKey);
+            while (true) {
+                List<UserRow> partition = jdbc.query("SELECT id, username FROM `user` WHERE id > ? ORDER BY id LIMIT ?",
+                        (rs, i) -> new UserRow(rs.getLong(1), rs.getString(2)), cursor, partitionSize);
+                if (partition.isEmpty()) break;
+
+                List<Object[]> rows = computePartition(partition, now);
+                long lastId = partition.get(partition.size() - 1).id();
+                partitionTx.executeWithoutResult(s -> {
+                    if (!rows.isEmpty()) jdbc.batchUpdate(InsightService.UPSERT, rows);
+                    jobLocks.advance(JOB, runKey, lastId, lease);
+                });
+                users += rows.size();
+                failed += partition.size() - rows.size();
+                cursor = lastId;
+            }
+            finished = true;
+            log.info("Insight batch for {}: {} users in {} ms ({} failed, recomputed on demand)",
+                    runKey, users, (System.nanoTime() - started) / 1_000_000, failed);
+        } finally {
+            jobLocks.release(JOB, finished);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", "done");
+        result.put("run", runKey);
+        result.put("users", users);
+        result.put("failed", failed);
+        return result;
+    }
+
+    // ---------- one partition ----------
+
+    // Upsert rows for the partition's users; a user whose computation failed is left out
+    private List<Object[]> computePartition(List<UserRow> partition, YearMonth now) {
+        long fromId = partition.get(0).id();
+        long toId = partition.get(partition.size() - 1).id();
+
+        // Versions first: anything written after this point makes the row stale
+        Map<String, Long> versions = new HashMap<>();
+        jdbc.query("""
+                SELECT u.username, v.version FROM `user` u JOIN user_data_versions v ON v.username = u.username
+                WHERE u.id BETWEEN ? AND ?
+                """, rs -> { versions.put(rs.getString(1), rs.getLong(2)); }, fromId, toId);
+
+        Map<Long, String> usernames = new HashMap<>();
+        for (UserRow u : partition) usernames.put(u.id(), u.username());
+
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        List<Future<Object[]>> futures = new ArrayList<>(partition.size());
+        Set<Long> seen = new HashSet<>();
+        UserAggregates[] current = {null};
+
+        // No date filter: the history window is applied per user, and the row count
+        // (current month included) decides "enough data" exactly as the column path does
+        streaming.query("""
+                SELECT t.user_id, t.category_id, c.name, YEAR(t.date) * 12 + MONTH(t.date) - 1,
+                       SUM(t.amount_minor), COUNT(*)
+                FROM transactions t LEFT JOIN categories c ON c.id = t.category_id
+                WHERE t.user_id BETWEEN ? AND ? AND t.type_code = ?
+                GROUP BY t.user_id, t.category_id, c.name, 4
+                ORDER BY t.user_id
+                """, rs -> {
+            long userId = rs.getLong(1);
+            if (current[0] == null || current[0].userId != userId) {
+                if (current[0] != null) futures.add(submit(current[0], usernames, versions, now, inFlight));
+                current[0] = new UserAggregates(userId);
+                seen.add(userId);
+            }
+            Object categoryId = rs.getObject(2);
+            Object month = rs.getObject(4);   // NULL for undated rows
+            current[0].add(categoryId == null ? TransactionColumns.NO_CATEGORY : ((Number) categoryId).intValue(),
+                    rs.getString(3), month == null ? null : ((Number) month).intValue(), rs.getLong(5), rs.getInt(6));
+        }, fromId, toId, TransactionType.EXPENSE.code());
+        if (current[0] != null) futures.add(submit(current[0], usernames, versions, now, inFlight));
+
+        List<Object[]> rows = new ArrayList<>(partition.size());
+        // Users with no expenses still get a row ("not enough data"), without a worker
+        for (UserRow u : partition) {
+            if (seen.contains(u.id())) continue;
+            rows.add(insights.upsertRow(u.username(), versions.getOrDefault(u.username(), 0L), now,
+                    insights.compute(null, now)));
+        }
+        for (Future<Object[]> f : futures) {
+            try {
+                Object[] row = f.get();
+                if (row != null) rows.add(row);
+            } catch (ExecutionException ex) {
+                log.warn("Insights failed for one user: {}", ex.getCause().getMessage());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Insight batch interrupted", ex);
+            }
+        }
+        return rows;
+    }
+
+    // Blocks the stream while parallelism * 2 users are already queued or running
+    private Future<Object[]> submit(UserAggregates agg, Map<Long, String> usernames, Map<String, Long> versions,
+                                    YearMonth now, Semaphore inFlight) {
+        String username = usernames.get(agg.userId);
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Insight batch interrupted", ex);
+        }
+        try {
+            return workers.submit(() -> {
+                try {
+                    if (username == null) return null;   // created after the partition was read
+                    return insights.upsertRow(username, versions.getOrDefault(username, 0L), now,
+                            insights.compute(agg.series(now), now));
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            inFlight.release();
+            throw ex;
+        }
+    }
+
+    // One user's streamed (category, month) sums until the stream moves to the next user
+    private static final class UserAggregates {
+        final long userId;
+        private final Map<Integer, Integer> categoryIndex = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private final List<int[]> cells = new ArrayList<>();   // {category index, month key}
+        private final List<Long> sums = new ArrayList<>();
+        private int rows;
+        private int firstMonth = Integer.MAX_VALUE;
+
+        UserAggregates(long userId) {
+            this.userId = userId;
+        }
+
+        void add(int categoryId, String name, Integer monthKey, long sumMinor, int count) {
+            rows += count;
+            if (monthKey == null) return;   // undated rows count towards "enough data" only
+            int c = categoryIndex.computeIfAbsent(categoryId, id -> {
+                names.add(name);
+                return names.size() - 1;
+            });
+            cells.add(new int[]{c, monthKey});
+            sums.add(sumMinor);
+            firstMonth = Math.min(firstMonth, monthKey);
+        }
+
+        AiPredictionService.ExpenseSeries series(YearMonth now) {
+            if (rows < 2 || firstMonth == Integer.MAX_VALUE) return null;
+            AiPredictionService.ExpenseSeries s =
+                    AiPredictionService.ExpenseSeries.window(firstMonth, now, names.toArray(new String[0]));
+            if (s == null) return null;
+            for (int i = 0; i < cells.size(); i++) s.add(cells.get(i)[0], cells.get(i)[1], sums.get(i));
+            return s;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,209 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.entity.UserInsight;
+import com.budgetwise.budgetwise.repository.UserInsightRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Expense prediction plus top category changes and anomalies, per user.
+ *
+ * InsightBatchJob precomputes every user's payload nightly into
+ * user_insights. A request serves that row while its data version and month
+ * still match; only users who changed something since (or a new month) are
+ * computed on demand, and the result is written back for the next request.
+ */
+@Service
+public class InsightService {
+
+    private static final int TOP_CHANGES = 3;
+    private static final int ANOMALY_LOOKBACK = 12;
+    private static final int ANOMALY_MIN_MONTHS = 4;
+    private static final double ANOMALY_Z = 2.0;
+
+    // Batched by the job, single rows on fallback. An older write landing last
+    // only makes the row stale, so no version guard is needed here.
+    static final String UPSERT = """
+            INSERT INTO user_insights (username, data_version, computed_for, next_month_minor, payload, computed_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE data_version = VALUES(data_version), computed_for = VALUES(computed_for),
+                next_month_minor = VALUES(next_month_minor), payload = VALUES(payload), computed_at = VALUES(computed_at)
+            """;
+
+    private final UserInsightRepository insightRepo;
+    private final AiPredictionService predictionService;
+    private final TransactionColumnCache columnCache;
+    private final DataVersionService dataVersions;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbc;
+
+    public InsightService(UserInsightRepository insightRepo, AiPredictionService predictionService,
+                          TransactionColumnCache columnCache, DataVersionService dataVersions,
+                          ObjectMapper objectMapper, DataSource dataSource) {
+        this.insightRepo = insightRepo;
+        this.predictionService = predictionService;
+        this.columnCache = columnCache;
+        this.dataVersions = dataVersions;
+        this.objectMapper = objectMapper;
+        this.jdbc = new JdbcTemplate(dataSource);
+    }
+
+    // ========== READ PATH ==========
+
+    // 🟢 GET /api/ai/insights
+    public Map<String, Object> insights(String username) {
+        YearMonth now = YearMonth.now();
+        long version = dataVersions.current(username);
+        Optional<UserInsight> row = insightRepo.findById(username).filter(r -> isFresh(r, version, now));
+        if (row.isPresent()) {
+            Map<String, Object> payload = parse(row.get().getPayload());
+            if (payload != null) return payload;
+        }
+        return computeAndStore(username, version, now);
+    }
+
+    // 🟢 GET /api/ai/predict-expenses
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> predictExpenses(String username) {
+        return (Map<String, Object>) insights(username).get("prediction");
+    }
+
+    // Next month's expense in rupees, or null without enough history (chatbot)
+    public Double nextMonthExpense(String username) {
+        YearMonth now = YearMonth.now();
+        long version = dataVersions.current(username);
+        Optional<UserInsight> row = insightRepo.findById(username).filter(r -> isFresh(r, version, now));
+        if (row.isPresent()) {
+            Long minor = row.get().getNextMonthMinor();
+            return minor == null ? null : TransactionColumns.toMajor(minor);
+        }
+        return nextMonthPrediction(computeAndStore(username, version, now));
+    }
+
+    private static boolean isFresh(UserInsight row, long version, YearMonth now) {
+        return row.getDataVersion() == version && now.toString().equals(row.getComputedFor());
+    }
+
+    // The version is read before the transactions, so a write in between leaves the row stale, never wrong
+    private Map<String, Object> computeAndStore(String username, long version, YearMonth now) {
+        AiPredictionService.ExpenseSeries s = predictionService.series(columnCache.get(username), now);
+        Map<String, Object> payload = compute(s, now);
+        jdbc.update(UPSERT, upsertRow(username, version, now, payload));
+        return payload;
+    }
+
+    private Map<String, Object> parse(String json) {
+        try {
+            return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+        } catch (JsonProcessingException ex) {
+            return null;   // recomputed and overwritten
+        }
+    }
+
+    // ========== COMPUTATION (also run by InsightBatchJob) ==========
+
+    public Map<String, Object> compute(AiPredictionService.ExpenseSeries s, YearMonth now) {
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("computedFor", now);
+        res.put("prediction", predictionService.predict(s, now));
+        res.put("topChanges", topChanges(s));
+        res.put("anomalies", anomalies(s));
+        return res;
+    }
+
+    // Arguments for UPSERT
+    public Object[] upsertRow(String username, long version, YearMonth now, Map<String, Object> payload) {
+        Double next = nextMonthPrediction(payload);
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Insights for " + username + " are not serialisable", ex);
+        }
+        return new Object[]{username, version, now.toString(), next == null ? null : Math.round(next * 100),
+                json, LocalDateTime.now()};
+    }
+
+    private static Double nextMonthPrediction(Map<String, Object> payload) {
+        Object prediction = payload.get("prediction");
+        if (!(prediction instanceof Map<?, ?> p)) return null;
+        return p.get("nextMonthPrediction") instanceof Number n ? n.doubleValue() : null;
+    }
+
+    // Biggest moves between the last two full months, either direction
+    private static List<Map<String, Object>> topChanges(AiPredictionService.ExpenseSeries s) {
+        if (s == null || s.months() < 2) return List.of();
+        int last = s.months() - 1;
+        YearMonth month = TransactionColumns.toYearMonth(s.firstMonth() + last);
+
+        List<double[]> moves = new ArrayList<>();   // {category, previous, current}
+        for (int c = 0; c < s.byCategory().length; c++) {
+            double[] y = s.byCategory()[c];
+            if (y == null || (y[last] == 0 && y[last - 1] == 0)) continue;
+            moves.add(new double[]{c, y[last - 1], y[last]});
+        }
+        moves.sort(Comparator.comparingDouble((double[] m) -> Math.abs(m[2] - m[1])).reversed());
+
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (double[] m : moves.subList(0, Math.min(TOP_CHANGES, moves.size()))) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("category", s.categoryNames()[(int) m[0]]);
+            row.put("month", month);
+            row.put("previous", rupees(m[1]));
+            row.put("current", rupees(m[2]));
+            row.put("change", rupees(m[2] - m[1]));
+            row.put("changePercent", m[1] > 0 ? Math.round((m[2] - m[1]) / m[1] * 1000) / 10.0 : null);
+            out.add(row);
+        }
+        return out;
+    }
+
+    // 🟢 Categories whose last full month sits more than 2σ above their own recent
+    // months (from the category's first spend, up to a year back)
+    private static List<Map<String, Object>> anomalies(AiPredictionService.ExpenseSeries s) {
+        if (s == null) return List.of();
+        int last = s.months() - 1;
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (int c = 0; c < s.byCategory().length; c++) {
+            double[] y = s.byCategory()[c];
+            if (y == null || y[last] == 0) continue;
+            int from = Math.max(0, last - ANOMALY_LOOKBACK);
+            while (from < last && y[from] == 0) from++;
+            int n = last - from;
+            if (n < ANOMALY_MIN_MONTHS) continue;
+
+            double mean = 0;
+            for (int m = from; m < last; m++) mean += y[m];
+            mean /= n;
+            double var = 0;
+            for (int m = from; m < last; m++) var += (y[m] - mean) * (y[m] - mean);
+            // Floor at 5% of the mean so a fixed bill that changes at all is not an infinite z
+            double sd = Math.max(Math.sqrt(var / (n - 1)), 0.05 * mean);
+            if (sd == 0) continue;
+            double z = (y[last] - mean) / sd;
+            if (z <= ANOMALY_Z) continue;
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("category", s.categoryNames()[c]);
+            row.put("month", TransactionColumns.toYearMonth(s.firstMonth() + last));
+            row.put("amount", rupees(y[last]));
+            row.put("typical", rupees(mean));
+            row.put("zScore", Math.round(z * 10) / 10.0);
+            out.add(row);
+        }
+        out.sort(Comparator.comparing((Map<String, Object> r) -> (Double) r.get("zScore")).reversed());
+        return out;
+    }
+
+    private static Double rupees(double minor) {
+        return TransactionColumns.toMajor(Math.round(minor));
+    }
+}
@@ -0,0 +1,63 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.entity.JobLock;
+import com.budgetwise.budgetwise.repository.JobLockRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Cluster-wide job leases on job_locks rows (one per job name). The holder
+ * is this node's bus id; a lease that is not renewed runs out, so a crashed
+ * node never blocks the job for longer than one lease.
+ *
+ * Jobs keep their progress (run key + cursor) on the same row and move it
+ * with advance() inside each chunk's transaction, so the next holder
+ * resumes from the last committed chunk.
+ */
+@Service
+public class JobLockService {
+
+    private final JobLockRepository lockRepo;
+    private final CacheInvalidationBus invalidationBus;
+    private final JdbcTemplate jdbc;
+
+    public JobLockService(JobLockRepository lockRepo, CacheInvalidationBus invalidationBus, DataSource dataSource) {
+        this.lockRepo = lockRepo;
+        this.invalidationBus = invalidationBus;
+        this.jdbc = new JdbcTemplate(dataSource);
+    }
+
+    // 🟢 The row as it is once we hold the lease; empty if another node holds it
+    public Optional<JobLock> tryAcquire(String job, Duration lease) {
+        jdbc.update("INSERT IGNORE INTO job_locks (name) VALUES (?)", job);
+        LocalDateTime now = LocalDateTime.now();
+        if (lockRepo.acquire(job, owner(), now, now.plus(lease)) == 0) return Optional.empty();
+        return lockRepo.findById(job);
+    }
+
+    // Cursor of the given run to resume after, or 0 when the row belongs to another run
+    public static long resumeAfter(JobLock lock, String runKey) {
+        return runKey.equals(lock.getRunKey()) && lock.getCursor() != null ? lock.getCursor() : 0L;
+    }
+
+    // 🟢 Call inside the chunk's transaction: progress commits with the chunk, and a
+    // lost lease rolls the chunk back
+    public void advance(String job, String runKey, long cursor, Duration lease) {
+        if (lockRepo.advance(job, owner(), runKey, cursor, LocalDateTime.now().plus(lease)) == 0) {
+            throw new IllegalStateException("Lost the " + job + " lease");
+        }
+    }
+
+    public void release(String job, boolean finished) {
+        lockRepo.release(job, owner(), finished ? LocalDateTime.now() : null);
+    }
+
+    private String owner() {
+        return invalidationBus.getNodeId();
+    }
+}
@@ -0,0 +1,246 @@
+package com.budgetwise.budgetwise.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-user server-sent event channels for live dashboards. Services publish
+ * compact change events after their write commits.
+ *
+ * Each connection has its own bounded queue, drained by a small sender pool
+ * one connection at a time, so a client whose TCP buffer is full only ever
+ * holds up its own events. A client that lets its queue overflow, or whose
+ * send has been stuck past the write timeout, is disconnected (the browser
+ * reconnects and re-fetches). The heartbeat thread only enqueues comments and
+ * looks for stuck sends; it never writes to a socket itself.
+ *
+ * Writes made on other nodes arrive through the invalidation bus and are
+ * passed on as a plain "refresh" event, which clients answer with a
+ * conditional GET.
+ */
+@Service
+public class LiveEventService implements CacheInvalidationListener {
+
+    // Event names
+    public static final String TRANSACTION = "transaction";
+    public static final String BUDGET = "budget";
+    public static final String GOAL = "goal";
+    public static final String FORUM_POST = "forum-post";
+    public static final String REFRESH = "refresh";
+
+    private static final Logger log = LoggerFactory.getLogger(LiveEventService.class);
+
+    private final Map<String, Set<Client>> channels = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService senders;
+    private final long timeoutMs;
+    private final int maxPerUser;
+    private final int maxQueued;
+    private final long writeTimeoutNanos;
+
+    public LiveEventService(@Value("${app.live-events.heartbeat-seconds:25}") long heartbeatSeconds,
+                            @Value("${app.live-events.timeout-minutes:30}") long timeoutMinutes,
+                            @Value("${app.live-events.max-connections-per-user:5}") int maxPerUser,
+                            @Value("${app.live-events.send-threads:4}") int sendThreads,
+                            @Value("${app.live-events.max-queued-events:64}") int maxQueued,
+                            @Value("${app.live-events.write-timeout-seconds:10}") long writeTimeoutSeconds) {
+        this.timeoutMs = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.maxPerUser = maxPerUser;
+        this.maxQueued = maxQueued;
+        this.writeTimeoutNanos = TimeUnit.SECONDS.toNanos(writeTimeoutSeconds);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "live-events");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(Math.max(1, sendThreads), r -> {
+            Thread t = new Thread(r, "live-events-send-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    // One open stream and the events waiting for it
+    private static final class Client {
+        final String username;
+        final SseEmitter emitter;
+        final Queue<SseEmitter.SseEventBuilder> queue = new ConcurrentLinkedQueue<>();
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean completed = new AtomicBoolean();
+        volatile long sendingSince;   // System.nanoTime() while a send is in progress, else 0
+        volatile boolean closed;
+
+        Client(String username, SseEmitter emitter) {
+            this.username = username;
+            this.emitter = emitter;
+        }
+    }
+
+    // 🟢 Open a channel; the browser's EventSource reconnects after the timeout
+    public SseEmitter subscribe(String username) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Client client = new Client(username, emitter);
+        emitter.onCompletion(() -> close(client, null));
+        emitter.onTimeout(() -> close(client, null));
+        emitter.onError(ex -> close(client, null));
+
+        // Forgotten tabs: past the cap an older connection is closed
+        Client[] evicted = new Client[1];
+        channels.compute(username, (u, clients) -> {
+            if (clients == null) clients = ConcurrentHashMap.newKeySet();
+            if (clients.size() >= maxPerUser) {
+                evicted[0] = clients.iterator().next();
+                clients.remove(evicted[0]);
+            }
+            clients.add(client);
+            return clients;
+        });
+        if (evicted[0] != null) close(evicted[0], null);
+
+        enqueue(client, SseEmitter.event().comment("connected"));
+        return emitter;
+    }
+
+    // 🟢 Call after the write has committed; never blocks the caller
+    public void publish(String username, String event, Map<String, ?> data) {
+        Set<Client> clients = channels.get(username);
+        if (clients == null || clients.isEmpty()) return;
+        for (Client client : clients) {
+            enqueue(client, SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    // Events every signed-in user sees (forum activity)
+    public void broadcast(String event, Map<String, ?> data) {
+        channels.values().forEach(clients -> {
+            for (Client client : clients) {
+                enqueue(client, SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+            }
+        });
+    }
+
+    public boolean isSubscribed(String username) {
+        return channels.containsKey(username);
+    }
+
+    public int connectionCount() {
+        return channels.values().stream().mapToInt(Set::size).sum();
+    }
+
+    // Keeps proxies from closing idle streams, finds dead connections and drops
+    // clients whose send has been blocked past the write timeout
+    private void heartbeat() {
+        long now = System.nanoTime();
+        channels.values().forEach(clients -> {
+            for (Client client : clients) {
+                long since = client.sendingSince;
+                if (since != 0 && now - since > writeTimeoutNanos) {
+                    close(client, "write timed out");
+                } else if (client.queued.get() == 0) {
+                    enqueue(client, SseEmitter.event().comment("hb"));
+                }
+            }
+        });
+    }
+
+    private void enqueue(Client client, SseEmitter.SseEventBuilder event) {
+        if (client.closed) return;
+        if (client.queued.incrementAndGet() > maxQueued) {
+            close(client, "too slow, " + maxQueued + " events queued");
+            return;
+        }
+        client.queue.add(event);
+        schedule(client);
+    }
+
+    private void schedule(Client client) {
+        if (client.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(client));
+            } catch (RejectedExecutionException ex) {
+                client.draining.set(false);   // shutting down
+            }
+        }
+    }
+
+    // At most one of these runs per client, so its events stay in order. The
+    // emitter is also completed from here: completing it elsewhere would wait
+    // for the lock held by a send that may be stuck.
+    private void drain(Client client) {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while ((event = client.queue.poll()) != null) {
+                client.queued.decrementAndGet();
+                if (!client.closed) send(client, event);
+            }
+            if (client.closed && client.completed.compareAndSet(false, true)) {
+                client.emitter.complete();
+            }
+            client.draining.set(false);
+        } while (!client.queue.isEmpty() && client.draining.compareAndSet(false, true));
+    }
+
+    private void send(Client client, SseEmitter.SseEventBuilder event) {
+        client.sendingSince = System.nanoTime();
+        try {
+            client.emitter.send(event);
+        } catch (IOException | IllegalStateException ex) {
+            // Client went away (or the emitter already completed)
+            unsubscribe(client);
+            client.closed = true;
+            if (client.completed.compareAndSet(false, true)) client.emitter.completeWithError(ex);
+        } finally {
+            client.sendingSince = 0;
+        }
+    }
+
+    // Never blocks: the client's sender completes the emitter once any send in progress returns
+    private void close(Client client, String reason) {
+        if (reason != null) log.debug("Closing live stream of {}: {}", client.username, reason);
+        unsubscribe(client);
+        client.closed = true;
+        client.queue.clear();
+        schedule(client);
+    }
+
+    private void unsubscribe(Client client) {
+        channels.computeIfPresent(client.username, (u, clients) -> {
+            clients.remove(client);
+            return clients.isEmpty() ? null : clients;
+        });
+    }
+
+    @Override
+    public void onInvalidate(String region, String key) {
+        if (CacheInvalidationBus.USER_DATA.equals(region)) {
+            publish(key, REFRESH, Map.of());
+        } else if (CacheInvalidationBus.FORUM.equals(region)) {
+            broadcast(REFRESH, Map.of("scope", "forum"));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        channels.values().forEach(clients -> clients.forEach(c -> c.emitter.complete()));
+        channels.clear();
+        log.debug("Closed live event channels");
+    }
+}
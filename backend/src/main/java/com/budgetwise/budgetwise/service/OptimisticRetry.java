@@ -0,0 +1,63 @@
+package com.budgetwise.budgetwise.service;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Bounded retry for internal updates that commute (adding an alias, applying
+ * a delta): each attempt re-reads in a fresh transaction, so losing a version
+ * race just means doing the same change on top of the winner. User edits must
+ * not go through here - their conflicts are reported as 409.
+ *
+ * retryingDeadlocks() is for whole write transactions, user edits included,
+ * that can be chosen as an InnoDB deadlock victim or time out on a lock: the
+ * database rolled the attempt back entirely, so it simply runs again.
+ */
+@Component
+public class OptimisticRetry {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final TransactionTemplate tx;
+
+    public OptimisticRetry(PlatformTransactionManager txManager) {
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    public <T> T run(Supplier<T> work) {
+        return run(work, OptimisticLockingFailureException.class);
+    }
+
+    // The work must start from scratch each time (reset ids a failed insert assigned)
+    public <T> T retryingDeadlocks(Supplier<T> work) {
+        return run(work, PessimisticLockingFailureException.class);
+    }
+
+    private <T> T run(Supplier<T> work, Class<? extends RuntimeException> retryOn) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return tx.execute(status -> work.get());
+            } catch (RuntimeException ex) {
+                if (!retryOn.isInstance(ex) || attempt >= MAX_ATTEMPTS) throw ex;
+                pause(attempt);
+            }
+        }
+    }
+
+    // 5-10 ms, 10-20 ms: enough for the competing commit to land
+    private static void pause(int attempt) {
+        long base = 5L << (attempt - 1);
+        try {
+            Thread.sleep(base + ThreadLocalRandom.current().nextLong(base + 1));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying", ie);
+        }
+    }
+}
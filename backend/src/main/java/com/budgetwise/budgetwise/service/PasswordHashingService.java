@@ -0,0 +1,94 @@
+package com.budgetwise.budgetwise.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs BCrypt (hashing, checking, and logins through the AuthenticationManager)
+ * on a small fixed pool with a bounded queue, instead of on Tomcat threads.
+ * A burst of sign-in attempts then occupies at most this pool's CPUs. Once
+ * the queue is full, further requests get a 429 straight away rather than
+ * waiting, and so do requests that have waited longer than the timeout.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor pool;
+    private final long timeoutMs;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public PasswordHashingService(PasswordEncoder encoder,
+                                  @Value("${app.password-hashing.threads:0}") int threads,
+                                  @Value("${app.password-hashing.queue:64}") int queue,
+                                  @Value("${app.password-hashing.timeout-ms:5000}") long timeoutMs) {
+        this.encoder = encoder;
+        this.timeoutMs = timeoutMs;
+        // 0 = half the CPUs, so hashing never takes every core from ordinary requests
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger count = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queue)), r -> {
+                    Thread t = new Thread(r, "password-hashing-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public String encode(CharSequence raw) {
+        return call(() -> encoder.encode(raw));
+    }
+
+    public boolean matches(CharSequence raw, String encoded) {
+        return call(() -> encoder.matches(raw, encoded));
+    }
+
+    // The provider's BCrypt check (and rehash on a cost change) happens inside authenticate()
+    public Authentication authenticate(AuthenticationManager authManager, Authentication request) {
+        return call(() -> authManager.authenticate(request));
+    }
+
+    // Requests turned away since startup (full queue or timed out waiting)
+    public long rejectedCount() {
+        return rejected.get();
+    }
+
+    private <T> T call(Callable<T> work) {
+        Future<T> future;
+        try {
+            future = pool.submit(work);
+        } catch (RejectedExecutionException ex) {
+            rejected.incrementAndGet();
+            throw new TooManyRequestsException("Too many sign-in requests right now, please retry shortly", 1);
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            if (ex.getCause() instanceof Error err) throw err;
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            future.cancel(false);
+            pool.remove((Runnable) future);
+            rejected.incrementAndGet();
+            throw new TooManyRequestsException("Too many sign-in requests right now, please retry shortly", 1);
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing", ex);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,163 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user rate limits and per-node bulkheads by route class (see
+ * RateLimitProperties), applied by RateLimitFilter before any controller runs.
+ *
+ * Each (class, user) bucket is a single AtomicLong holding the bucket's
+ * "theoretical arrival time" (GCRA, equivalent to a token bucket with the
+ * class's capacity and refill rate), updated by compare-and-set, so
+ * concurrent requests never take a lock. Buckets idle long enough to be full
+ * again are simply dropped from the cache.
+ *
+ * A class with max-concurrent > 0 also gets a semaphore: heavy requests
+ * (PDF export, AI chat) beyond that many at once are refused immediately
+ * instead of queueing on Tomcat threads that cheap requests need.
+ */
+@Service
+public class RateLimiterService {
+
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+
+    private final boolean enabled;
+    private final List<RouteLimit> limits = new ArrayList<>();
+
+    public RateLimiterService(RateLimitProperties props,
+                              @Value("${app.rate-limit.max-keys:100000}") long maxKeys) {
+        this.enabled = props.isEnabled();
+        props.getClasses().forEach((name, c) -> limits.add(new RouteLimit(name, c, maxKeys)));
+        // Explicit order, never the bound map's (YAML or env overrides can reorder it)
+        limits.sort(Comparator.comparingInt((RouteLimit l) -> l.order).thenComparing(l -> l.name));
+    }
+
+    // What the filter was told; release() must be called once the request is done
+    public record Admission(RouteLimit limit, boolean holdsSlot, long retryAfterSeconds, String reason) {
+        static final Admission UNLIMITED = new Admission(null, false, 0, null);
+
+        public boolean rejected() {
+            return reason != null;
+        }
+    }
+
+    // 🟢 Bulkhead slot first (cheap to give back), then a token for this user
+    public Admission admit(String path, String userKey) {
+        RouteLimit limit = enabled ? match(path) : null;
+        if (limit == null) return Admission.UNLIMITED;
+
+        boolean slot = false;
+        if (limit.bulkhead != null) {
+            if (!limit.bulkhead.tryAcquire()) {
+                limit.shed.increment();
+                return new Admission(limit, false, 1, "Too many " + limit.name + " requests in progress, please retry shortly");
+            }
+            slot = true;
+        }
+        long waitNanos = limit.bucketFor(userKey).tryTake(System.nanoTime(), limit.intervalNanos, limit.burstNanos);
+        if (waitNanos > 0) {
+            if (slot) limit.bulkhead.release();
+            limit.throttled.increment();
+            return new Admission(limit, false, (waitNanos + 999_999_999L) / 1_000_000_000L,
+                    "Rate limit reached for " + limit.name + " requests");
+        }
+        limit.allowed.increment();
+        return new Admission(limit, slot, 0, null);
+    }
+
+    public void release(Admission admission) {
+        if (admission.holdsSlot()) admission.limit().bulkhead.release();
+    }
+
+    // 🟢 GET /api/admin/rate-limits
+    public Map<String, Object> metrics() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (RouteLimit l : limits) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("order", l.order);
+            m.put("paths", l.patterns);
+            m.put("allowed", l.allowed.sum());
+            m.put("rateLimited", l.throttled.sum());
+            m.put("bulkheadRejected", l.shed.sum());
+            if (l.bulkhead != null) {
+                m.put("maxConcurrent", l.maxConcurrent);
+                m.put("inFlight", l.maxConcurrent - l.bulkhead.availablePermits());
+            }
+            m.put("trackedUsers", l.buckets.estimatedSize());
+            out.put(l.name, m);
+        }
+        return out;
+    }
+
+    private RouteLimit match(String path) {
+        for (RouteLimit l : limits) {
+            for (String p : l.patterns) {
+                if (PATHS.match(p, path)) return l;
+            }
+        }
+        return null;
+    }
+
+    // ---------- internals ----------
+
+    public static final class RouteLimit {
+        final String name;
+        final int order;
+        final List<String> patterns;
+        final long intervalNanos;   // one token's worth of time
+        final long burstNanos;      // capacity tokens' worth
+        final int maxConcurrent;
+        final Semaphore bulkhead;
+        final Cache<String, Bucket> buckets;
+        final LongAdder allowed = new LongAdder();
+        final LongAdder throttled = new LongAdder();
+        final LongAdder shed = new LongAdder();
+
+        RouteLimit(String name, RateLimitProperties.RouteClass c, long maxKeys) {
+            if (c.getPerMinute() <= 0 || c.getCapacity() < 1) {
+                throw new IllegalArgumentException("Rate limit class " + name + " needs capacity >= 1 and per-minute > 0");
+            }
+            this.name = name;
+            this.order = c.getOrder();
+            this.patterns = List.copyOf(c.getPaths());
+            this.intervalNanos = (long) (60_000_000_000L / c.getPerMinute());
+            this.burstNanos = intervalNanos * c.getCapacity();
+            this.maxConcurrent = c.getMaxConcurrent();
+            this.bulkhead = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(Duration.ofNanos(burstNanos).plusMinutes(1))
+                    .build();
+        }
+
+        Bucket bucketFor(String key) {
+            return buckets.get(key, k -> new Bucket());
+        }
+    }
+
+    static final class Bucket {
+        // When the bucket will next be full again, in System.nanoTime() terms
+        private final AtomicLong tat = new AtomicLong(Long.MIN_VALUE);
+
+        // 0 when a token was taken, else nanoseconds until one is available
+        long tryTake(long now, long interval, long burst) {
+            while (true) {
+                long t = tat.get();
+                long next = (t == Long.MIN_VALUE || t - now < 0 ? now : t) + interval;
+                if (next - now > burst) return next - now - burst;
+                if (tat.compareAndSet(t, next)) return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.entity.Money;
+import com.budgetwise.budgetwise.entity.Transaction;
+import com.budgetwise.budgetwise.entity.TransactionAnomaly;
+import com.budgetwise.budgetwise.entity.TransactionType;
+import com.budgetwise.budgetwise.entity.User;
+import com.budgetwise.budgetwise.repository.TransactionAnomalyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Flags unusual expenses as they are written ("₹40,000 on Food?").
+ *
+ * Each (user, category) keeps running statistics of ln(amount): count, mean
+ * and M2, updated with Welford's step, so scoring a new expense is a z-score
+ * against numbers already in hand rather than a scan of the history. Log
+ * space because spending is skewed: ₹200 → ₹2,000 is as surprising as
+ * ₹2,000 → ₹20,000.
+ *
+ * Statistics live in category_spend_stats and are cached per user. A write
+ * folds its rows into the stored row with a merge upsert (Chan et al.'s
+ * pairwise combination of Welford states), inside the same transaction as
+ * the rows, so concurrent writers on any node never lose each other's
+ * updates. The local cache entry gets the same merge after commit; other
+ * nodes drop theirs on the USER_DATA event. A load racing a commit can count
+ * that batch twice, so entries are also reloaded after a fixed interval.
+ */
+@Service
+public class SpendingAnomalyService implements CacheInvalidationListener {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Order matters: MySQL applies the assignments left to right, so m2 and mean
+    // are computed from the old n and mean before those are overwritten
+    private static final String MERGE = """
+            INSERT INTO category_spend_stats (user_id, category_id, n, mean, m2) VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                m2 = m2 + VALUES(m2) + POW(VALUES(mean) - mean, 2) * n * VALUES(n) / (n + VALUES(n)),
+                mean = mean + (VALUES(mean) - mean) * VALUES(n) / (n + VALUES(n)),
+                n = n + VALUES(n)
+            """;
+
+    private final TransactionAnomalyRepository anomalyRepo;
+    private final JdbcTemplate jdbc;
+    private final Cache<String, Map<Integer, Stats>> stats;
+    private final int minSamples;
+    private final double threshold;
+
+    public SpendingAnomalyService(TransactionAnomalyRepository anomalyRepo, DataSource dataSource,
+                                  @Value("${app.anomaly.max-users:50000}") long maxUsers,
+                                  @Value("${app.anomaly.reload-minutes:30}") long reloadMinutes,
+                                  @Value("${app.anomaly.min-samples:5}") int minSamples,
+                                  @Value("${app.anomaly.z-threshold:3.0}") double threshold) {
+        this.anomalyRepo = anomalyRepo;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.stats = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofMinutes(reloadMinutes))
+                .build();
+        this.minSamples = minSamples;
+        this.threshold = threshold;
+    }
+
+    // Welford state of ln(amount) for one category
+    record Stats(long n, double mean, double m2) {
+        static final Stats EMPTY = new Stats(0, 0, 0);
+
+        Stats with(double x) {
+            long n1 = n + 1;
+            double delta = x - mean;
+            double mean1 = mean + delta / n1;
+            return new Stats(n1, mean1, m2 + delta * (x - mean1));
+        }
+
+        Stats merge(Stats o) {
+            if (o.n == 0) return this;
+            if (n == 0) return o;
+            long n1 = n + o.n;
+            double delta = o.mean - mean;
+            return new Stats(n1, mean + delta * o.n / n1, m2 + o.m2 + delta * delta * n * o.n / n1);
+        }
+
+        // Sample standard deviation, floored so a category with identical amounts still scores
+        double sd() {
+            return Math.max(n > 1 ? Math.sqrt(m2 / (n - 1)) : 0, 0.1);
+        }
+    }
+
+    // The batch's own contribution, per category, to merge into storage and cache
+    public record Recorded(Map<Integer, Stats> deltas, List<TransactionAnomaly> flagged) {
+        public static final Recorded NONE = new Recorded(Map.of(), List.of());
+    }
+
+    // ---------- write hooks ----------
+
+    // 🟢 Inside the write transaction, after the rows are saved: scores each expense
+    // against its category's statistics so far (earlier rows of the same batch
+    // included), stores the flagged ones and merges the batch into the stored stats
+    public Recorded record(User user, List<Transaction> saved) {
+        Map<Integer, Stats> known = statsFor(user);
+        Map<Integer, Stats> running = new HashMap<>();
+        Map<Integer, Stats> deltas = new HashMap<>();
+        List<TransactionAnomaly> flagged = new ArrayList<>();
+
+        for (Transaction t : saved) {
+            if (!scorable(t)) continue;
+            int category = categoryId(t);
+            double x = Math.log(t.getAmount().minor());
+            Stats before = running.computeIfAbsent(category, c -> known.getOrDefault(c, Stats.EMPTY));
+            TransactionAnomaly a = score(user, t.getId(), t, before, x);
+            if (a != null) flagged.add(a);
+            running.put(category, before.with(x));
+            deltas.put(category, deltas.getOrDefault(category, Stats.EMPTY).with(x));
+        }
+        if (deltas.isEmpty()) return Recorded.NONE;
+
+        List<Object[]> merges = new ArrayList<>(deltas.size());
+        deltas.forEach((c, d) -> merges.add(new Object[]{user.getId(), c, d.n(), d.mean(), d.m2()}));
+        jdbc.batchUpdate(MERGE, merges);
+        if (!flagged.isEmpty()) anomalyRepo.saveAll(flagged);
+        return new Recorded(deltas, flagged);
+    }
+
+    // Inside the update transaction: the edited row is judged again against the
+    // same statistics (which keep describing amounts as first entered)
+    public void rescore(User user, long transactionId, Transaction updated) {
+        anomalyRepo.deleteByTransactions(user.getId(), List.of(transactionId));
+        if (!scorable(updated)) return;
+        Stats s = statsFor(user).getOrDefault(categoryId(updated), Stats.EMPTY);
+        TransactionAnomaly a = score(user, transactionId, updated, s, Math.log(updated.getAmount().minor()));
+        if (a != null) anomalyRepo.save(a);
+    }
+
+    // Inside the delete transaction
+    public void forget(User user, Collection<Long> transactionIds) {
+        anomalyRepo.deleteByTransactions(user.getId(), transactionIds);
+    }
+
+    // After commit: the cached statistics take the same merge the stored row did
+    public void committed(String username, Recorded recorded) {
+        if (recorded.deltas().isEmpty()) return;
+        stats.asMap().computeIfPresent(username, (u, current) -> {
+            Map<Integer, Stats> next = new HashMap<>(current);
+            recorded.deltas().forEach((c, d) -> next.merge(c, d, Stats::merge));
+            return Map.copyOf(next);
+        });
+    }
+
+    // ---------- reads ----------
+
+    // 🟢 GET /api/transactions/anomalies
+    public Map<String, Object> getAnomalies(String username, int page, int size) {
+        Page<TransactionAnomaly> p = anomalyRepo.findByUserUsernameOrderByIdDesc(username,
+                PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE)));
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("items", p.getContent());
+        res.put("page", p.getNumber());
+        res.put("size", p.getSize());
+        res.put("totalItems", p.getTotalElements());
+        res.put("totalPages", p.getTotalPages());
+        return res;
+    }
+
+    // Most recent flags, newest first (chatbot)
+    public List<TransactionAnomaly> recent(String username, int limit) {
+        return anomalyRepo.findByUserUsernameOrderByIdDesc(username, PageRequest.of(0, limit)).getContent();
+    }
+
+    @Override
+    public void onInvalidate(String region, String key) {
+        if (CacheInvalidationBus.USER_DATA.equals(region)) {
+            stats.invalidate(key);
+        }
+    }
+
+    // ---------- helpers ----------
+
+    private Map<Integer, Stats> statsFor(User user) {
+        return stats.get(user.getUsername(), u -> {
+            Map<Integer, Stats> loaded = new HashMap<>();
+            jdbc.query("SELECT category_id, n, mean, m2 FROM category_spend_stats WHERE user_id = ?",
+                    rs -> { loaded.put(rs.getInt(1), new Stats(rs.getLong(2), rs.getDouble(3), rs.getDouble(4))); },
+                    user.getId());
+            return Map.copyOf(loaded);
+        });
+    }
+
+    private TransactionAnomaly score(User user, Long transactionId, Transaction t, Stats s, double x) {
+        if (s.n() < minSamples) return null;
+        double z = (x - s.mean()) / s.sd();
+        if (z < threshold) return null;
+        return new TransactionAnomaly(user, transactionId, t.getCategory(), t.getAmount(),
+                Money.ofMinor(Math.round(Math.exp(s.mean()))), Math.round(z * 10) / 10.0, t.getDate());
+    }
+
+    private static boolean scorable(Transaction t) {
+        return t.getType() == TransactionType.EXPENSE && t.getAmount() != null && t.getAmount().minor() > 0;
+    }
+
+    private static int categoryId(Transaction t) {
+        return t.getCategoryRef() == null ? TransactionColumns.NO_CATEGORY : t.getCategoryRef().getId();
+    }
+}
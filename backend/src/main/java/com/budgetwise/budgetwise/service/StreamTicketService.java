@@ -0,0 +1,75 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.config.ReplicaRoutingDataSource;
+import com.budgetwise.budgetwise.entity.StreamTicket;
+import com.budgetwise.budgetwise.repository.StreamTicketRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Short-lived, single-use tickets for the SSE endpoint. EventSource cannot
+ * send an Authorization header, and a JWT in the query string would end up
+ * in access logs and browser history for its whole lifetime; a ticket is
+ * worthless seconds after it was issued or once it has been used.
+ *
+ * Tickets live in MySQL (hashed) so one issued by one node opens the stream
+ * on any other.
+ */
+@Service
+public class StreamTicketService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final StreamTicketRepository repo;
+    private final Duration ttl;
+
+    public StreamTicketService(StreamTicketRepository repo,
+                               @Value("${app.live-events.ticket-seconds:30}") long ticketSeconds) {
+        this.repo = repo;
+        this.ttl = Duration.ofSeconds(ticketSeconds);
+    }
+
+    // 🟢 POST /api/stream/ticket
+    public Map<String, Object> issue(String username) {
+        byte[] raw = new byte[32];
+        RANDOM.nextBytes(raw);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+        repo.save(new StreamTicket(hash(ticket), username, LocalDateTime.now().plus(ttl)));
+        return Map.of("ticket", ticket, "expiresIn", ttl.toSeconds());
+    }
+
+    // The ticket's user, once; empty for unknown, expired or already used tickets
+    public Optional<String> redeem(String ticket) {
+        if (ticket == null || ticket.isBlank() || ticket.length() > 100) return Optional.empty();
+        String hash = hash(ticket);
+        Optional<StreamTicket> found = ReplicaRoutingDataSource.onPrimary(() -> repo.findById(hash));
+        if (found.isEmpty() || repo.consume(hash, LocalDateTime.now()) == 0) return Optional.empty();
+        return Optional.of(found.get().getUsername());
+    }
+
+    @Scheduled(fixedDelayString = "${app.live-events.ticket-sweep-interval-ms:600000}")
+    public void purgeExpired() {
+        repo.deleteExpired(LocalDateTime.now());
+    }
+
+    private static String hash(String ticket) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(ticket.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 unavailable", ex);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.config.ReplicaRoutingDataSource;
+import com.budgetwise.budgetwise.entity.Transaction;
+import com.budgetwise.budgetwise.repository.TransactionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-user TransactionColumns, loaded lazily, patched in place by
+ * TransactionService writes and bounded by total row count (LRU-ish via
+ * Caffeine's W-TinyLFU). Other nodes' writes evict through the bus; the
+ * reload after such an eviction reads the primary, since a snapshot taken
+ * from a replica that has not caught up would be served until it expires.
+ */
+@Service
+public class TransactionColumnCache implements CacheInvalidationListener {
+
+    private final TransactionRepository txRepo;
+    private final Cache<String, TransactionColumns> cache;
+
+    public TransactionColumnCache(TransactionRepository txRepo,
+                                  @Value("${app.analytics.column-cache.max-rows:2000000}") long maxRows,
+                                  @Value("${app.analytics.column-cache.expire-after-access-minutes:60}") long expireMinutes) {
+        this.txRepo = txRepo;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxRows)
+                .weigher((String username, TransactionColumns cols) -> Math.max(1, cols.size()))
+                .expireAfterAccess(Duration.ofMinutes(expireMinutes))
+                .build();
+    }
+
+    public TransactionColumns get(String username) {
+        return cache.get(username, u -> ReplicaRoutingDataSource.onPrimary(
+                () -> TransactionColumns.of(txRepo.findViewsByUsername(u))));
+    }
+
+    // Called after the row is committed. Blocks behind an in-flight load for the
+    // same user, so the patch is never lost to a concurrent cold read.
+    public void upsert(String username, Transaction tx) {
+        cache.asMap().computeIfPresent(username, (u, cols) -> cols.withUpserted(tx));
+    }
+
+    public void remove(String username, long transactionId) {
+        cache.asMap().computeIfPresent(username, (u, cols) -> cols.without(transactionId));
+    }
+
+    // Point-in-time copy of what is cached, for the on-disk snapshot
+    public Map<String, TransactionColumns> entries() {
+        return new HashMap<>(cache.asMap());
+    }
+
+    // Restored from the snapshot; never overwrites columns loaded since
+    public void warm(String username, TransactionColumns cols) {
+        cache.asMap().putIfAbsent(username, cols);
+    }
+
+    public void removeAll(String username, Collection<Long> transactionIds) {
+        cache.asMap().computeIfPresent(username, (u, cols) -> cols.withoutAll(transactionIds));
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    @Override
+    public void onInvalidate(String region, String key) {
+        if (CacheInvalidationBus.USER_DATA.equals(region)) {
+            evict(key);
+        }
+    }
+}
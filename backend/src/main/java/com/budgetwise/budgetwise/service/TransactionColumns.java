@@ -0,0 +1,408 @@
+package com.budgetwise.budgetwise.service;
+
+import com.budgetwise.budgetwise.entity.Money;
+import com.budgetwise.budgetwise.entity.Transaction;
+import com.budgetwise.budgetwise.entity.TransactionType;
+import com.budgetwise.budgetwise.repository.TransactionView;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Immutable column-oriented copy of one user's transactions, sorted by id.
+ * Aggregations are plain loops over primitive arrays: no entities, no boxing
+ * and no per-row allocation. Sums are exact long paise and overflow-checked.
+ * Writes produce a new instance (copy-on-write), which is cheap next to
+ * re-reading the rows from MySQL.
+ */
+public final class TransactionColumns {
+
+    // Type bits
+    public static final byte INCOME = 1;
+    public static final byte EXPENSE = 2;
+    public static final byte OTHER = 4;           // neither INCOME nor EXPENSE
+    public static final byte NOT_INCOME = EXPENSE | OTHER;
+
+    public static final int NO_DATE = Integer.MIN_VALUE;
+    public static final int ALL_DAYS_FROM = Integer.MIN_VALUE;
+    public static final int ALL_DAYS_TO = Integer.MAX_VALUE;
+    public static final int NO_CATEGORY = 0;      // category id of uncategorised rows
+
+    // id + epochDay + amount + category + type
+    private static final int ROW_BYTES = 8 + 4 + 8 + 2 + 1;
+
+    private final int size;
+    private final long[] ids;
+    private final int[] epochDays;
+    private final long[] amounts;          // minor units (paise)
+    private final short[] categories;      // index into categoryNames
+    private final byte[] types;
+    private final int[] categoryIds;       // per-user dictionary: Category id ...
+    private final String[] categoryNames;  // ... and its display name
+
+    private TransactionColumns(int size, long[] ids, int[] epochDays, long[] amounts,
+                               short[] categories, byte[] types, int[] categoryIds, String[] categoryNames) {
+        this.size = size;
+        this.ids = ids;
+        this.epochDays = epochDays;
+        this.amounts = amounts;
+        this.categories = categories;
+        this.types = types;
+        this.categoryIds = categoryIds;
+        this.categoryNames = categoryNames;
+    }
+
+    public static TransactionColumns of(List<TransactionView> txs) {
+        List<TransactionView> sorted = new ArrayList<>(txs);
+        sorted.sort(Comparator.comparing(TransactionView::id));
+
+        int n = sorted.size();
+        long[] ids = new long[n];
+        int[] days = new int[n];
+        long[] amounts = new long[n];
+        short[] cats = new short[n];
+        byte[] types = new byte[n];
+        Map<Integer, Short> dict = new HashMap<>();
+        List<Integer> catIds = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+
+        for (int i = 0; i < n; i++) {
+            TransactionView t = sorted.get(i);
+            ids[i] = t.id();
+            days[i] = t.date() == null ? NO_DATE : (int) t.date().toEpochDay();
+            amounts[i] = minorUnits(t.amount());
+            types[i] = typeOf(t.type());
+            cats[i] = dict.computeIfAbsent(t.categoryId() == null ? NO_CATEGORY : t.categoryId(), c -> {
+                catIds.add(c);
+                names.add(t.category());
+                return checkedIndex(names.size() - 1);
+            });
+        }
+        return new TransactionColumns(n, ids, days, amounts, cats, types,
+                catIds.stream().mapToInt(Integer::intValue).toArray(), names.toArray(new String[0]));
+    }
+
+    // ---------- copy-on-write updates ----------
+
+    public TransactionColumns withUpserted(Transaction t) {
+        int[] catIds = categoryIds;
+        String[] names = categoryNames;
+        int cat = indexOfCategoryId(categoryIdOf(t));
+        if (cat < 0) {
+            catIds = Arrays.copyOf(categoryIds, categoryIds.length + 1);
+            names = Arrays.copyOf(categoryNames, categoryNames.length + 1);
+            cat = names.length - 1;
+            catIds[cat] = categoryIdOf(t);
+            names[cat] = t.getCategory();
+        }
+
+        int pos = Arrays.binarySearch(ids, 0, size, t.getId());
+        int n = pos >= 0 ? size : size + 1;
+        int at = pos >= 0 ? pos : -pos - 1;
+
+        long[] newIds = new long[n];
+        int[] newDays = new int[n];
+        long[] newAmounts = new long[n];
+        short[] newCats = new short[n];
+        byte[] newTypes = new byte[n];
+
+        int tail = pos >= 0 ? at + 1 : at;
+        copyRange(0, 0, at, newIds, newDays, newAmounts, newCats, newTypes);
+        copyRange(tail, at + 1, size - tail, newIds, newDays, newAmounts, newCats, newTypes);
+
+        newIds[at] = t.getId();
+        newDays[at] = epochDayOf(t);
+        newAmounts[at] = minorUnits(t.getAmount());
+        newCats[at] = checkedIndex(cat);
+        newTypes[at] = typeOf(t.getType());
+
+        return new TransactionColumns(n, newIds, newDays, newAmounts, newCats, newTypes, catIds, names);
+    }
+
+    public TransactionColumns without(long id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) return this;
+
+        int n = size - 1;
+        long[] newIds = new long[n];
+        int[] newDays = new int[n];
+        long[] newAmounts = new long[n];
+        short[] newCats = new short[n];
+        byte[] newTypes = new byte[n];
+
+        copyRange(0, 0, pos, newIds, newDays, newAmounts, newCats, newTypes);
+        copyRange(pos + 1, pos, size - pos - 1, newIds, newDays, newAmounts, newCats, newTypes);
+        return new TransactionColumns(n, newIds, newDays, newAmounts, newCats, newTypes, categoryIds, categoryNames);
+    }
+
+    public TransactionColumns withoutAll(Collection<Long> removeIds) {
+        boolean[] drop = new boolean[size];
+        int n = size;
+        for (Long id : removeIds) {
+            int pos = id == null ? -1 : Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0 && !drop[pos]) {
+                drop[pos] = true;
+                n--;
+            }
+        }
+        if (n == size) return this;
+
+        long[] newIds = new long[n];
+        int[] newDays = new int[n];
+        long[] newAmounts = new long[n];
+        short[] newCats = new short[n];
+        byte[] newTypes = new byte[n];
+        for (int i = 0, j = 0; i < size; i++) {
+            if (drop[i]) continue;
+            newIds[j] = ids[i];
+            newDays[j] = epochDays[i];
+            newAmounts[j] = amounts[i];
+            newCats[j] = categories[i];
+            newTypes[j] = types[i];
+            j++;
+        }
+        return new TransactionColumns(n, newIds, newDays, newAmounts, newCats, newTypes, categoryIds, categoryNames);
+    }
+
+    private void copyRange(int from, int to, int len,
+                           long[] newIds, int[] newDays, long[] newAmounts, short[] newCats, byte[] newTypes) {
+        if (len <= 0) return;
+        System.arraycopy(ids, from, newIds, to, len);
+        System.arraycopy(epochDays, from, newDays, to, len);
+        System.arraycopy(amounts, from, newAmounts, to, len);
+        System.arraycopy(categories, from, newCats, to, len);
+        System.arraycopy(types, from, newTypes, to, len);
+    }
+
+    // ---------- row access (for callers writing their own loops) ----------
+
+    public int size() { return size; }
+    public long id(int row) { return ids[row]; }
+    public int epochDay(int row) { return epochDays[row]; }
+    public long amount(int row) { return amounts[row]; }
+    public int category(int row) { return categories[row]; }
+    public boolean is(int row, byte typeMask) { return (types[row] & typeMask) != 0; }
+
+    public long maxId() { return size == 0 ? 0 : ids[size - 1]; }
+
+    public int categoryCount() { return categoryNames.length; }
+    public String categoryName(int category) { return categoryNames[category]; }
+    public int categoryId(int category) { return categoryIds[category]; }
+
+    // Dictionary index for a Category id, -1 if the user has no rows in it
+    public int indexOfCategoryId(int categoryId) {
+        for (int c = 0; c < categoryIds.length; c++) {
+            if (categoryIds[c] == categoryId) return c;
+        }
+        return -1;
+    }
+
+    // ---------- aggregates ----------
+
+    public long sum(byte typeMask) {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            if ((types[i] & typeMask) != 0) total = Math.addExact(total, amounts[i]);
+        }
+        return total;
+    }
+
+    public int count(byte typeMask) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if ((types[i] & typeMask) != 0) count++;
+        }
+        return count;
+    }
+
+    // Category → total (in rupees) for rows with fromDay <= epochDay <= toDay.
+    // Only categories with at least one matching row appear, like groupingBy.
+    public Map<String, Double> categoryTotals(byte typeMask, int fromDay, int toDay) {
+        Map<String, Double> result = new HashMap<>();
+        categoryTotalsMinor(typeMask, fromDay, toDay).forEach((c, minor) -> result.put(c, toMajor(minor)));
+        return result;
+    }
+
+    // Same, in exact paise, for callers that do arithmetic or print amounts
+    public Map<String, Long> categoryTotalsMinor(byte typeMask, int fromDay, int toDay) {
+        long[] sums = new long[categoryNames.length];
+        boolean[] seen = new boolean[categoryNames.length];
+        for (int i = 0; i < size; i++) {
+            int day = epochDays[i];
+            if ((types[i] & typeMask) != 0 && day >= fromDay && day <= toDay) {
+                sums[categories[i]] = Math.addExact(sums[categories[i]], amounts[i]);
+                seen[categories[i]] = true;
+            }
+        }
+
+        Map<String, Long> result = new HashMap<>();
+        for (int c = 0; c < sums.length; c++) {
+            if (seen[c]) result.put(categoryNames[c], sums[c]);
+        }
+        return result;
+    }
+
+    // Dense per-month totals between the first and last dated matching row
+    public MonthlyTotals monthly(byte typeMask) {
+        int first = Integer.MAX_VALUE, last = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            if ((types[i] & typeMask) != 0 && epochDays[i] != NO_DATE) {
+                int m = monthKey(epochDays[i]);
+                if (m < first) first = m;
+                if (m > last) last = m;
+            }
+        }
+        if (first > last) return new MonthlyTotals(0, new long[0], new int[0]);
+
+        long[] totals = new long[last - first + 1];
+        int[] counts = new int[totals.length];
+        for (int i = 0; i < size; i++) {
+            if ((types[i] & typeMask) != 0 && epochDays[i] != NO_DATE) {
+                int m = monthKey(epochDays[i]) - first;
+                totals[m] = Math.addExact(totals[m], amounts[i]);
+                counts[m]++;
+            }
+        }
+        return new MonthlyTotals(first, totals, counts);
+    }
+
+    public static final class MonthlyTotals {
+        public final int firstMonth;   // monthKey of totals[0]
+        public final long[] totals;    // minor units
+        public final int[] counts;     // rows per month; 0 = no data that month
+
+        MonthlyTotals(int firstMonth, long[] totals, int[] counts) {
+            this.firstMonth = firstMonth;
+            this.totals = totals;
+            this.counts = counts;
+        }
+
+        public YearMonth yearMonth(int index) {
+            return toYearMonth(firstMonth + index);
+        }
+    }
+
+    // ---------- binary form (AnalyticsSnapshotService) ----------
+
+    int serializedSize() {
+        int bytes = 4 + 4;   // row count, category count
+        for (String name : categoryNames) {
+            bytes += 4 + 2 + (name == null ? 0 : name.getBytes(StandardCharsets.UTF_8).length);
+        }
+        return bytes + size * ROW_BYTES;
+    }
+
+    void writeTo(ByteBuffer buf) {
+        buf.putInt(size);
+        buf.putInt(categoryNames.length);
+        for (int c = 0; c < categoryNames.length; c++) {
+            String name = categoryNames[c];
+            buf.putInt(categoryIds[c]);
+            if (name == null) {
+                buf.putShort((short) -1);
+            } else {
+                byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+                buf.putShort((short) utf8.length);
+                buf.put(utf8);
+            }
+        }
+        for (int i = 0; i < size; i++) buf.putLong(ids[i]);
+        for (int i = 0; i < size; i++) buf.putInt(epochDays[i]);
+        for (int i = 0; i < size; i++) buf.putLong(amounts[i]);
+        for (int i = 0; i < size; i++) buf.putShort(categories[i]);
+        buf.put(types, 0, size);
+    }
+
+    static TransactionColumns readFrom(ByteBuffer buf) {
+        int n = buf.getInt();
+        int categoryCount = buf.getInt();
+        if (n < 0 || categoryCount < 0 || categoryCount > Short.MAX_VALUE + 1) {
+            throw new IllegalStateException("Corrupt column block");
+        }
+
+        int[] catIds = new int[categoryCount];
+        String[] names = new String[categoryCount];
+        for (int c = 0; c < categoryCount; c++) {
+            catIds[c] = buf.getInt();
+            short len = buf.getShort();
+            if (len >= 0) {
+                byte[] utf8 = new byte[len];
+                buf.get(utf8);
+                names[c] = new String(utf8, StandardCharsets.UTF_8);
+            }
+        }
+
+        long[] ids = new long[n];
+        int[] days = new int[n];
+        long[] amounts = new long[n];
+        short[] cats = new short[n];
+        byte[] types = new byte[n];
+        for (int i = 0; i < n; i++) ids[i] = buf.getLong();
+        for (int i = 0; i < n; i++) days[i] = buf.getInt();
+        for (int i = 0; i < n; i++) amounts[i] = buf.getLong();
+        for (int i = 0; i < n; i++) {
+            cats[i] = buf.getShort();
+            if (cats[i] < 0 || cats[i] >= categoryCount) throw new IllegalStateException("Corrupt column block");
+        }
+        buf.get(types);
+        return new TransactionColumns(n, ids, days, amounts, cats, types, catIds, names);
+    }
+
+    // ---------- helpers ----------
+
+    // year * 12 + (month - 1), computed from the epoch day without allocating a LocalDate
+    public static int monthKey(int epochDay) {
+        long z = epochDay + 719468L;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long year = yoe + era * 400;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        if (month <= 2) year++;
+        return (int) (year * 12 + month - 1);
+    }
+
+    public static int monthKey(YearMonth ym) {
+        return ym.getYear() * 12 + ym.getMonthValue() - 1;
+    }
+
+    // 1..12
+    public static int monthOfYear(int epochDay) {
+        return Math.floorMod(monthKey(epochDay), 12) + 1;
+    }
+
+    public static YearMonth toYearMonth(int monthKey) {
+        return YearMonth.of(Math.floorDiv(monthKey, 12), Math.floorMod(monthKey, 12) + 1);
+    }
+
+    public static double toMajor(long minor) {
+        return minor / 100.0;
+    }
+
+    static long minorUnits(Money amount) {
+        return amount == null ? 0 : amount.minor();
+    }
+
+    private static int epochDayOf(Transaction t) {
+        return t.getDate() == null ? NO_DATE : (int) t.getDate().toEpochDay();
+    }
+
+    private static int categoryIdOf(Transaction t) {
+        return t.getCategoryRef() == null ? NO_CATEGORY : t.getCategoryRef().getId();
+    }
+
+    private static byte typeOf(TransactionType type) {
+        if (type == TransactionType.INCOME) return INCOME;
+        if (type == TransactionType.EXPENSE) return EXPENSE;
+        return OTHER;
+    }
+
+    private static short checkedIndex(int index) {
+        if (index > Short.MAX_VALUE) throw new IllegalStateException("Too many categories for one user");
+        return (short) index;
+    }
+}
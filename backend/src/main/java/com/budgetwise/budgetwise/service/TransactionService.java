@@ -1,47 +1,236 @@
 package com.budgetwise.budgetwise.service;
 
 import com.budgetwise.budgetwise.entity.Transaction;
+import com.budgetwise.budgetwise.entity.TransactionType;
 import com.budgetwise.budgetwise.entity.User;
 import com.budgetwise.budgetwise.repository.TransactionRepository;
+import com.budgetwise.budgetwise.repository.TransactionView;
 import com.budgetwise.budgetwise.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class TransactionService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionService.class);
+    private static final int MAX_BULK_CREATE = 500;
+    private static final int MAX_BULK_DELETE = 1000;
     private final TransactionRepository txRepo;
     private final UserRepository userRepo;
+    private final DataVersionService dataVersions;
+    private final TransactionColumnCache columnCache;
+    private final CategoryService categoryService;
+    private final BudgetService budgetService;
+    private final BudgetAlertService budgetAlerts;
+    private final LiveEventService liveEvents;
+    private final SpendingAnomalyService anomalies;
+    private final IdempotencyService idempotency;
+    private final OptimisticRetry retry;
 
-    public TransactionService(TransactionRepository txRepo, UserRepository userRepo) {
+    public TransactionService(TransactionRepository txRepo, UserRepository userRepo,
+                              DataVersionService dataVersions, TransactionColumnCache columnCache,
+                              CategoryService categoryService, BudgetService budgetService,
+                              BudgetAlertService budgetAlerts, LiveEventService liveEvents,
+                              SpendingAnomalyService anomalies, IdempotencyService idempotency,
+                              OptimisticRetry retry) {
         this.txRepo = txRepo;
         this.userRepo = userRepo;
+        this.dataVersions = dataVersions;
+        this.columnCache = columnCache;
+        this.categoryService = categoryService;
+        this.budgetService = budgetService;
+        this.budgetAlerts = budgetAlerts;
+        this.liveEvents = liveEvents;
+        this.anomalies = anomalies;
+        this.idempotency = idempotency;
+        this.retry = retry;
     }
 
     public Transaction addTransaction(Transaction tx, String username) {
+        validate(tx);
         User user = userRepo.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
         tx.setUser(user);
-        return txRepo.save(tx);
+        tx.setCategoryRef(categoryService.resolve(user, tx.getCategory()));
+
+        Written<Transaction> w = retry.retryingDeadlocks(() -> {
+            fresh(tx);
+            Transaction saved = txRepo.save(tx);
+            Written<Transaction> written = new Written<>(saved,
+                    budgetService.applySpending(user.getId(), List.of(), List.of(saved)),
+                    anomalies.record(user, List.of(saved)));
+            idempotency.completeInTransaction(saved);
+            return written;
+        });
+        afterWrite(user, () -> {
+            columnCache.upsert(username, w.result());
+            anomalies.committed(username, w.anomalies());
+        }, w.budgetDeltas(), Map.of("op", "added", "id", w.result().getId(),
+                "version", w.result().getVersion(), "anomalies", w.anomalies().flagged().size()));
+        return w.result();
     }
 
-    public List<Transaction> getTransactionsForUser(String username) {
-        return txRepo.findByUserUsername(username);
+    // One transaction for the rows and their budget deltas, one version bump for the batch
+    public List<Transaction> addTransactions(List<Transaction> txs, String username) {
+        if (txs == null || txs.isEmpty()) return List.of();
+        if (txs.size() > MAX_BULK_CREATE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_BULK_CREATE + " transactions per request");
+        }
+        txs.forEach(this::validate);
+
+        User user = userRepo.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
+        for (Transaction tx : txs) {
+            tx.setUser(user);
+            tx.setCategoryRef(categoryService.resolve(user, tx.getCategory()));
+        }
+        Written<List<Transaction>> w = retry.retryingDeadlocks(() -> {
+            txs.forEach(TransactionService::fresh);
+            List<Transaction> saved = txRepo.saveAll(txs);
+            Written<List<Transaction>> written = new Written<>(saved,
+                    budgetService.applySpending(user.getId(), List.of(), saved), anomalies.record(user, saved));
+            idempotency.completeInTransaction(saved);
+            return written;
+        });
+        afterWrite(user, () -> {
+            w.result().forEach(t -> columnCache.upsert(username, t));
+            anomalies.committed(username, w.anomalies());
+        }, w.budgetDeltas(), Map.of("op", "added", "count", w.result().size(),
+                "anomalies", w.anomalies().flagged().size()));
+        return w.result();
     }
 
-    public Transaction updateTransaction(Long id, Transaction updated, String username) {
-        Transaction existing = txRepo.findById(id).orElseThrow(() -> new RuntimeException("Transaction not found"));
-        if (!existing.getUser().getUsername().equals(username)) throw new RuntimeException("Not allowed");
-        existing.setType(updated.getType());
-        existing.setCategory(updated.getCategory());
-        existing.setAmount(updated.getAmount());
-        existing.setDescription(updated.getDescription());
-        existing.setDate(updated.getDate());
-        return txRepo.save(existing);
+    @Transactional(readOnly = true)
+    public List<TransactionView> getTransactionsForUser(String username) {
+        return txRepo.findViewsByUsername(username);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TransactionView> getTransactionsForUser(String username, TransactionType type) {
+        return txRepo.findViewsByUsernameAndType(username, type);
+    }
+
+    // Locks the row (budget spent moves by old → new), then a single
+    // UPDATE ... WHERE id = ? AND user_id = ? [AND version = ?]. The lock read
+    // also tells 404 ("missing" or "not yours") from 409, and holds the version
+    // the UPDATE moves on from, so unconditional updates get one back too.
+    public Transaction updateTransaction(Long id, Transaction updated, Long expectedVersion, String username) {
+        validate(updated);
+        User user = userRepo.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
+        updated.setCategoryRef(categoryService.resolve(user, updated.getCategory()));
+
+        Written<Long> w = retry.retryingDeadlocks(() -> {
+            List<TransactionView> before = txRepo.lockOwned(List.of(id), user.getId());
+            if (before.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Transaction not found");
+            }
+            int rows = txRepo.updateOwned(id, user.getId(), expectedVersion, updated.getType(),
+                    updated.getCategoryRef(), updated.getAmount(), updated.getDescription(), updated.getDate());
+            if (rows == 0) {
+                throw new VersionConflictException(txRepo.findOwnedView(id, user.getId()).orElse(null));
+            }
+            anomalies.rescore(user, id, updated);
+            return new Written<>(before.get(0).version() + 1,
+                    budgetService.applySpending(user.getId(), before, List.of(updated)));
+        });
+
+        updated.setId(id);
+        updated.setVersion(w.result());
+        updated.setUser(user);
+        afterWrite(user, () -> columnCache.upsert(username, updated), w.budgetDeltas(),
+                Map.of("op", "updated", "id", id, "version", w.result()));
+        return updated;
     }
 
     public void deleteTransaction(Long id, String username) {
-        Transaction t = txRepo.findById(id).orElseThrow(() -> new RuntimeException("Transaction not found"));
-        if (!t.getUser().getUsername().equals(username)) throw new RuntimeException("Not allowed");
-        txRepo.deleteById(id);
+        User user = userRepo.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
+        Map<Long, Long> budgetDeltas = retry.retryingDeadlocks(() -> {
+            List<TransactionView> before = txRepo.lockOwned(List.of(id), user.getId());
+            if (before.isEmpty() || txRepo.deleteOwned(id, user.getId()) == 0) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Transaction not found");
+            }
+            anomalies.forget(user, List.of(id));
+            return budgetService.applySpending(user.getId(), before, List.of());
+        });
+        afterWrite(user, () -> columnCache.remove(username, id), budgetDeltas, Map.of("op", "deleted", "id", id));
+    }
+
+    // Multi-select delete: ids the user does not own are skipped, not an error
+    public int deleteTransactions(Collection<Long> ids, String username) {
+        if (ids == null || ids.isEmpty()) return 0;
+        if (ids.size() > MAX_BULK_DELETE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_BULK_DELETE + " transactions per request");
+        }
+        User user = userRepo.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
+        Written<Integer> w = retry.retryingDeadlocks(() -> {
+            List<TransactionView> before = txRepo.lockOwned(ids, user.getId());
+            int deleted = before.isEmpty() ? 0 : txRepo.deleteAllOwned(ids, user.getId());
+            // Same body as POST /api/transactions/bulk-delete returns
+            idempotency.completeInTransaction(Map.of("deleted", deleted));
+            if (deleted == 0) return new Written<>(0, Map.<Long, Long>of());
+            anomalies.forget(user, ids);
+            return new Written<>(deleted, budgetService.applySpending(user.getId(), before, List.of()));
+        });
+        if (w.result() > 0) {
+            afterWrite(user, () -> columnCache.removeAll(username, ids), w.budgetDeltas(),
+                    Map.of("op", "deleted", "count", w.result()));
+        }
+        return w.result();
+    }
+
+    // Write transactions can lose a deadlock against a budget recompute and run again;
+    // ids and versions a rolled-back insert assigned must not survive into the retry
+    private static void fresh(Transaction tx) {
+        tx.setId(null);
+        tx.setVersion(null);
+    }
+
+    // What a write transaction produced, plus the budget spent and spending statistics it moved
+    private record Written<T>(T result, Map<Long, Long> budgetDeltas, SpendingAnomalyService.Recorded anomalies) {
+        Written(T result, Map<Long, Long> budgetDeltas) {
+            this(result, budgetDeltas, SpendingAnomalyService.Recorded.NONE);
+        }
+    }
+
+    // Runs after the row change is committed. Nothing here may fail the request (a
+    // client told "error" would retry and write the rows again), and no step may skip
+    // another: each is guarded on its own. The version bump comes after the cache
+    // patches, so a new ETag never serves old columns, and always runs; the live
+    // event goes last, once readers can see the change.
+    private void afterWrite(User user, Runnable cachePatch, Map<Long, Long> budgetDeltas, Map<String, ?> event) {
+        String username = user.getUsername();
+        try {
+            if (!guarded(username, "column cache patch", cachePatch)) columnCache.evict(username);
+            guarded(username, "budget cache eviction", () -> budgetService.spendingCommitted(budgetDeltas.keySet()));
+            guarded(username, "budget alerts", () -> budgetAlerts.recordSpending(user, budgetDeltas));
+        } finally {
+            guarded(username, "data version bump", () -> dataVersions.bump(username));
+        }
+        guarded(username, "live event", () -> liveEvents.publish(username, LiveEventService.TRANSACTION, event));
+    }
+
+    private boolean guarded(String username, String step, Runnable work) {
+        try {
+            work.run();
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Post-commit {} failed for {}: {}", step, username, ex.toString());
+            return false;
+        }
+    }
+
+    // Unknown type strings already fail in JSON binding (TransactionType.from); this catches a missing one
+    private void validate(Transaction tx) {
+        if (tx.getType() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Transaction type must be INCOME or EXPENSE");
+        }
     }
 }
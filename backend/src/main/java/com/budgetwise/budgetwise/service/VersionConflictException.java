@@ -0,0 +1,16 @@
+package com.budgetwise.budgetwise.service;
+
+// Optimistic-lock conflict on a user edit; carries the row as it is now so the client can merge
+public class VersionConflictException extends RuntimeException {
+
+    private final transient Object current;
+
+    public VersionConflictException(Object current) {
+        super("This record was changed by someone else");
+        this.current = current;
+    }
+
+    public Object getCurrent() {
+        return current;
+    }
+}
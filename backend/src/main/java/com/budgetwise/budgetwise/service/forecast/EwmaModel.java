@@ -0,0 +1,28 @@
+package com.budgetwise.budgetwise.service.forecast;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Exponentially weighted moving average: recent months count most, no trend
+@Component
+@Order(2)
+public class EwmaModel implements ForecastModel {
+
+    private static final double ALPHA = 0.3;
+
+    @Override
+    public String name() { return "ewma"; }
+
+    @Override
+    public int minHistory() { return 1; }
+
+    @Override
+    public double forecast(double[] y, int n, int horizon, double[] scratch) {
+        if (n < minHistory()) return Double.NaN;
+        double level = y[0];
+        for (int i = 1; i < n; i++) {
+            level += ALPHA * (y[i] - level);
+        }
+        return level;
+    }
+}
@@ -0,0 +1,111 @@
+package com.budgetwise.budgetwise.service.forecast;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chooses a ForecastModel per user by rolling-origin backtesting and turns
+ * its forecast into a point estimate with prediction intervals.
+ *
+ * Backtest: for each of the last few months t, forecast y[t] from
+ * y[0..t - horizon] exactly as the real forecast would be made, and score
+ * the absolute error. All candidate models are scored on the same origins.
+ * Intervals come from the chosen model's backtest errors on the series
+ * being forecast (normal approximation around the point estimate).
+ */
+@Component
+public class ForecastEngine {
+
+    private static final double Z80 = 1.2816;
+    private static final double Z95 = 1.9600;
+    private static final int MIN_ORIGINS = 3;
+
+    private final List<ForecastModel> models;
+    private final int maxOrigins;
+
+    public ForecastEngine(List<ForecastModel> models,
+                          @Value("${app.forecast.backtest-origins:6}") int maxOrigins) {
+        if (models.isEmpty()) throw new IllegalArgumentException("No forecast models");
+        this.models = List.copyOf(models);
+        this.maxOrigins = maxOrigins;
+    }
+
+    // The model to use and how each candidate scored (mean absolute error, same units as y)
+    public record Selection(ForecastModel model, Map<String, Double> backtestMae) {}
+
+    // Point estimate; interval bounds are NaN when there was too little history to backtest
+    public record Forecast(double point, double lower80, double upper80, double lower95, double upper95) {
+        public boolean hasInterval() { return !Double.isNaN(lower80); }
+    }
+
+    // 🟢 Best model for y[0..n) at this horizon. With too little history for a fair
+    // comparison, the model needing the least history wins.
+    public Selection select(double[] y, int n, int horizon) {
+        double[] scratch = scratchFor(y);
+        int lastOrigin = n - horizon;   // the forecast from here lands on y[n - 1]
+
+        int widestNeed = 0;
+        for (ForecastModel m : models) {
+            if (lastOrigin - m.minHistory() + 1 >= MIN_ORIGINS) widestNeed = Math.max(widestNeed, m.minHistory());
+        }
+        ForecastModel best = null;
+        double bestMae = Double.POSITIVE_INFINITY;
+        Map<String, Double> scores = new LinkedHashMap<>();
+        if (widestNeed > 0) {
+            int firstOrigin = Math.max(widestNeed, lastOrigin - maxOrigins + 1);
+            for (ForecastModel m : models) {
+                if (m.minHistory() > widestNeed) continue;
+                double sum = 0;
+                for (int t = firstOrigin; t <= lastOrigin; t++) {
+                    sum += Math.abs(y[t + horizon - 1] - m.forecast(y, t, horizon, scratch));
+                }
+                double mae = sum / (lastOrigin - firstOrigin + 1);
+                scores.put(m.name(), mae);
+                if (mae < bestMae) {
+                    bestMae = mae;
+                    best = m;
+                }
+            }
+        }
+        if (best == null) {
+            for (ForecastModel m : models) {
+                if (best == null || m.minHistory() < best.minHistory()) best = m;
+            }
+        }
+        return new Selection(best, scores);
+    }
+
+    // 🟢 Forecast of month n - 1 + horizon with 80% / 95% intervals, clamped at zero
+    public Forecast forecast(ForecastModel model, double[] y, int n, int horizon) {
+        double[] scratch = scratchFor(y);
+        double point = Math.max(0, model.forecast(y, n, horizon, scratch));
+
+        int lastOrigin = n - horizon;
+        int firstOrigin = Math.max(model.minHistory(), lastOrigin - maxOrigins + 1);
+        int origins = lastOrigin - firstOrigin + 1;
+        if (origins < 2) {
+            return new Forecast(point, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        }
+        double sumSq = 0;
+        for (int t = firstOrigin; t <= lastOrigin; t++) {
+            double e = y[t + horizon - 1] - model.forecast(y, t, horizon, scratch);
+            sumSq += e * e;
+        }
+        double rmse = Math.sqrt(sumSq / origins);
+        return new Forecast(point,
+                Math.max(0, point - Z80 * rmse), point + Z80 * rmse,
+                Math.max(0, point - Z95 * rmse), point + Z95 * rmse);
+    }
+
+    public List<ForecastModel> models() {
+        return models;
+    }
+
+    private static double[] scratchFor(double[] y) {
+        return new double[Math.max(y.length, 12)];
+    }
+}
@@ -0,0 +1,21 @@
+package com.budgetwise.budgetwise.service.forecast;
+
+/**
+ * One way of forecasting a dense monthly series (index i = i-th month, no
+ * gaps). Implementations are Spring beans, so adding a model is adding a
+ * class; ForecastEngine picks among them by backtest.
+ *
+ * Implementations must not allocate per call: they get the history as a
+ * primitive array plus a scratch array at least as long as it.
+ */
+public interface ForecastModel {
+
+    // Short name used in API responses
+    String name();
+
+    // Fewest months of history the model needs
+    int minHistory();
+
+    // Value of month n - 1 + horizon, from y[0..n). NaN if n < minHistory().
+    double forecast(double[] y, int n, int horizon, double[] scratch);
+}
@@ -0,0 +1,48 @@
+package com.budgetwise.budgetwise.service.forecast;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Additive Holt-Winters: level + trend + a 12-month seasonal pattern.
+// Needs two full years to initialise the season.
+@Component
+@Order(3)
+public class HoltWintersModel implements ForecastModel {
+
+    private static final int SEASON = 12;
+    private static final double ALPHA = 0.3;   // level
+    private static final double BETA = 0.1;    // trend
+    private static final double GAMMA = 0.2;   // season
+
+    @Override
+    public String name() { return "holt-winters"; }
+
+    @Override
+    public int minHistory() { return 2 * SEASON; }
+
+    @Override
+    public double forecast(double[] y, int n, int horizon, double[] scratch) {
+        if (n < minHistory()) return Double.NaN;
+
+        double first = 0, second = 0;
+        for (int i = 0; i < SEASON; i++) {
+            first += y[i];
+            second += y[SEASON + i];
+        }
+        double level = first / SEASON;
+        double trend = (second - first) / ((double) SEASON * SEASON);
+        // scratch[t % SEASON] = seasonal offset for month t
+        for (int i = 0; i < SEASON; i++) {
+            scratch[i] = y[i] - level;
+        }
+
+        for (int t = SEASON; t < n; t++) {
+            double season = scratch[t % SEASON];
+            double previousLevel = level;
+            level = ALPHA * (y[t] - season) + (1 - ALPHA) * (level + trend);
+            trend = BETA * (level - previousLevel) + (1 - BETA) * trend;
+            scratch[t % SEASON] = GAMMA * (y[t] - level) + (1 - GAMMA) * season;
+        }
+        return level + horizon * trend + scratch[(n - 1 + horizon) % SEASON];
+    }
+}
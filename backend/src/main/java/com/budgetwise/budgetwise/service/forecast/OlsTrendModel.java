@@ -0,0 +1,33 @@
+package com.budgetwise.budgetwise.service.forecast;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Straight-line trend fitted by ordinary least squares
+@Component
+@Order(1)
+public class OlsTrendModel implements ForecastModel {
+
+    @Override
+    public String name() { return "ols"; }
+
+    @Override
+    public int minHistory() { return 2; }
+
+    @Override
+    public double forecast(double[] y, int n, int horizon, double[] scratch) {
+        if (n < minHistory()) return Double.NaN;
+        double sumX = 0, sumY = 0, sumXY = 0, sumXX = 0;
+        for (int i = 0; i < n; i++) {
+            sumX += i;
+            sumY += y[i];
+            sumXY += i * y[i];
+            sumXX += (double) i * i;
+        }
+        // x = 0..n-1, so this is n²(n²-1)/12: positive for any n >= 2, flat data included
+        double den = n * sumXX - sumX * sumX;
+        double slope = (n * sumXY - sumX * sumY) / den;
+        double intercept = (sumY - slope * sumX) / n;
+        return slope * (n - 1 + horizon) + intercept;
+    }
+}
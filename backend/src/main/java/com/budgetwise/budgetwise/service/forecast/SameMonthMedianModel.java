@@ -0,0 +1,35 @@
+package com.budgetwise.budgetwise.service.forecast;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+// Median of the same calendar month in earlier years (December vs December)
+@Component
+@Order(4)
+public class SameMonthMedianModel implements ForecastModel {
+
+    private static final int SEASON = 12;
+
+    @Override
+    public String name() { return "same-month-median"; }
+
+    @Override
+    public int minHistory() { return SEASON; }
+
+    @Override
+    public double forecast(double[] y, int n, int horizon, double[] scratch) {
+        if (n < minHistory()) return Double.NaN;
+        int target = n - 1 + horizon;
+        int count = 0;
+        for (int t = target - SEASON; t >= 0; t -= SEASON) {
+            if (t < n) scratch[count++] = y[t];
+        }
+        if (count == 0) return Double.NaN;
+        Arrays.sort(scratch, 0, count);
+        return count % 2 == 1
+                ? scratch[count / 2]
+                : (scratch[count / 2 - 1] + scratch[count / 2]) / 2;
+    }
+}
@@ -0,0 +1,98 @@
+package com.budgetwise.budgetwise.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Two embedded H2 databases stand in for the MySQL primary and replica
+class ReplicaRoutingDataSourceTests {
+
+    private DataSourceTransactionManager txManager;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = embedded("primary");
+        DataSource replica = embedded("replica");
+
+        DataSource routing = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, 60_000));
+        txManager = new DataSourceTransactionManager(routing);
+        jdbc = new JdbcTemplate(routing);
+    }
+
+    @AfterEach
+    void clearUser() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        assertEquals("replica", nodeName(true));
+    }
+
+    @Test
+    void readWriteTransactionsGoToPrimary() {
+        assertEquals("primary", nodeName(false));
+    }
+
+    @Test
+    void readsStickToPrimaryAfterOwnWrite() {
+        loginAs("alice");
+        assertEquals("replica", nodeName(true));
+
+        nodeName(false);
+
+        assertEquals("primary", nodeName(true));
+    }
+
+    @Test
+    void otherUsersKeepReadingFromReplica() {
+        loginAs("alice");
+        nodeName(false);
+
+        loginAs("bob");
+        assertEquals("replica", nodeName(true));
+    }
+
+    @Test
+    void onPrimaryOverridesReadOnlyWithoutStickiness() {
+        loginAs("alice");
+        assertEquals("primary", ReplicaRoutingDataSource.onPrimary(() -> nodeName(true)));
+
+        assertEquals("replica", nodeName(true));
+    }
+
+    private String nodeName(boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(txManager);
+        tx.setReadOnly(readOnly);
+        return tx.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private void loginAs(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private DataSource embedded(String name) {
+        DriverManagerDataSource ds = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate init = new JdbcTemplate(ds);
+        init.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        init.update("DELETE FROM node");
+        init.update("INSERT INTO node (name) VALUES (?)", name);
+        return ds;
+    }
+}
@@ -0,0 +1,83 @@
+package com.budgetwise.budgetwise.service.forecast;
+
+import com.budgetwise.budgetwise.entity.Money;
+import com.budgetwise.budgetwise.entity.TransactionType;
+import com.budgetwise.budgetwise.repository.TransactionView;
+import com.budgetwise.budgetwise.service.AiPredictionService;
+import com.budgetwise.budgetwise.service.TransactionColumns;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plain objects, no Spring context: the engine only needs its models
+class ForecastEngineTests {
+
+    private final ForecastEngine engine = new ForecastEngine(List.of(
+            new OlsTrendModel(), new EwmaModel(), new HoltWintersModel(), new SameMonthMedianModel()), 6);
+
+    @Test
+    void flatHistoryGivesFiniteForecasts() {
+        double[] y = new double[36];
+        java.util.Arrays.fill(y, 5_000_00);
+        for (int n = 1; n <= y.length; n++) {
+            ForecastEngine.Selection sel = engine.select(y, n, 2);
+            ForecastEngine.Forecast f = engine.forecast(sel.model(), y, n, 2);
+            assertEquals(5_000_00, f.point(), 1e-6, "n = " + n + ", model " + sel.model().name());
+        }
+    }
+
+    @Test
+    void seasonalHistoryPicksASeasonalModel() {
+        // Every December costs an extra ₹50,000
+        double[] y = new double[48];
+        for (int m = 0; m < y.length; m++) y[m] = 10_000_00 + (m % 12 == 11 ? 50_000_00 : 0);
+
+        ForecastEngine.Selection sel = engine.select(y, y.length, 2);
+
+        assertTrue(List.of("holt-winters", "same-month-median").contains(sel.model().name()), sel.toString());
+    }
+
+    // mvn test -Dgroups=benchmark -DexcludedGroups=
+    @Test
+    @Tag("benchmark")
+    void hundredThousandTransactionsInMilliseconds() {
+        YearMonth now = YearMonth.of(2025, 6);
+        TransactionColumns cols = TransactionColumns.of(transactions(100_000, 25, now.minusMonths(60), now));
+        AiPredictionService predictions = new AiPredictionService(null, engine);
+
+        for (int i = 0; i < 50; i++) predictions.predict(cols, now);   // warm-up
+
+        int runs = 200;
+        long start = System.nanoTime();
+        Map<String, Object> last = null;
+        for (int i = 0; i < runs; i++) last = predictions.predict(cols, now);
+        double msPerRun = (System.nanoTime() - start) / 1e6 / runs;
+
+        assertNotNull(last.get("nextMonthPrediction"));
+        assertTrue(msPerRun < 50, String.format("100k transactions, 25 categories took %.2f ms (model %s)",
+                msPerRun, last.get("model")));
+    }
+
+    private static List<TransactionView> transactions(int count, int categories, YearMonth from, YearMonth to) {
+        SplittableRandom rng = new SplittableRandom(42);
+        long firstDay = from.atDay(1).toEpochDay();
+        long days = to.atDay(1).toEpochDay() - firstDay;
+        List<TransactionView> txs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int category = rng.nextInt(categories) + 1;
+            boolean income = rng.nextInt(10) == 0;
+            txs.add(new TransactionView((long) i + 1, income ? TransactionType.INCOME : TransactionType.EXPENSE,
+                    category, "Category " + category, Money.ofMinor(100 + rng.nextInt(500_000)), null,
+                    LocalDate.ofEpochDay(firstDay + rng.nextLong(days)), 0L));
+        }
+        return txs;
+    }
+}
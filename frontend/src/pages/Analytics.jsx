@@ -105,10 +105,9 @@ export default function Analytics() {
     // Add prediction point
     const last = months[months.length - 1];
     const [y, m] = last.split("-").map(Number);
-    const nextMonth = `${m === 12 ? y + 1 : y}-${String(m === 12 ? 1 : m + 1).padStart(
-      2,
-      "0"
-    )}`;
+    const nextMonth =
+      aiData.forecastMonth ||
+      `${m === 12 ? y + 1 : y}-${String(m === 12 ? 1 : m + 1).padStart(2, "0")}`;
 
     series.push({
       month: nextMonth,
@@ -371,7 +370,9 @@ export default function Analytics() {
                   ₹{aiData.nextMonthPrediction.toLocaleString()}
                 </p>
                 <p className="text-gray-600 text-sm mb-4">
-                  Forecast based on your previous monthly spending.
+                  {aiData.interval80
+                    ? `Likely between ₹${aiData.interval80.lower.toLocaleString()} and ₹${aiData.interval80.upper.toLocaleString()} (${aiData.model} model).`
+                    : "Forecast based on your previous monthly spending."}
                 </p>
 
                 <div className="h-28">
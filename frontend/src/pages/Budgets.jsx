@@ -52,7 +52,9 @@ export default function Budgets() {
     setLoading(true);
 
     try {
-      await API.post("/budgets", form);
+      // This form edits monthly budgets: month + year decide the period
+      const { periodType, periodStart, periodEnd, ...monthly } = form;
+      await API.post("/budgets", monthly);
       alert(isEditing ? "Budget updated successfully!" : "Budget added!");
       resetForm();
       fetchBudgets();
@@ -76,6 +78,26 @@ export default function Budgets() {
     fetchBudgets();
   };
 
+  // Recreate this budget every period (server-side rollover job)
+  const handleRepeat = async (b) => {
+    const carryOver = window.confirm(
+      "Carry unspent money into the next period?\nOK = carry over, Cancel = fresh limit each period"
+    );
+    try {
+      await API.post("/budget-templates", {
+        category: b.category,
+        limitAmount: b.limitAmount,
+        periodType: b.periodType === "WEEKLY" ? "WEEKLY" : "MONTHLY",
+        carryOver,
+      });
+      alert("This budget will now repeat automatically.");
+      fetchBudgets();
+    } catch (err) {
+      console.error(err);
+      alert(err.response?.data?.message || "Could not make this budget repeat");
+    }
+  };
+
   const resetForm = () => {
     setForm({
       id: null,
@@ -177,9 +199,19 @@ export default function Budgets() {
                   <div className="flex justify-between items-center">
                     <h3 className="text-xl font-bold text-indigo-700">
                       {b.category}
+                      {b.templateId && (
+                        <span className="ml-2 text-sm" title="Repeats automatically">🔁</span>
+                      )}
+                      {b.alertLevel > 0 && (
+                        <span className="ml-2 text-sm text-red-600" title="Alert sent">
+                          ⚠️ {b.alertLevel}%
+                        </span>
+                      )}
                     </h3>
                     <span className="text-sm bg-indigo-600 text-white px-3 py-1 rounded-full">
-                      {b.month} {b.year}
+                      {b.periodType && b.periodType !== "MONTHLY"
+                        ? `${b.periodStart} → ${b.periodEnd}`
+                        : `${b.month} ${b.year}`}
                     </span>
                   </div>
 
@@ -211,6 +243,14 @@ export default function Budgets() {
 
                   {/* Buttons */}
                   <div className="flex justify-end space-x-4 mt-5">
+                    {!b.templateId && b.periodType !== "CUSTOM" && (
+                      <button
+                        onClick={() => handleRepeat(b)}
+                        className="text-indigo-600 hover:text-indigo-800 font-semibold"
+                      >
+                        Repeat
+                      </button>
+                    )}
                     <button
                       onClick={() => handleEdit(b)}
                       className="text-blue-600 hover:text-blue-800 font-semibold"
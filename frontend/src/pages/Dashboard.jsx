@@ -1,6 +1,6 @@
 import React, { useEffect, useState } from "react";
 import { useNavigate, Link } from "react-router-dom";
-import API from "../services/api";
+import API, { openStream } from "../services/api";
 import {
   PieChart,
   Pie,
@@ -18,68 +18,61 @@ import {
 export default function Dashboard() {
   const navigate = useNavigate();
   const [user, setUser] = useState({});
-  const [transactions, setTransactions] = useState([]);
+  const [totals, setTotals] = useState({ income: 0, expense: 0, balance: 0 });
+  const [recent, setRecent] = useState([]);
   const [categoryData, setCategoryData] = useState([]);
   const [monthlyData, setMonthlyData] = useState([]);
+  const [budgetAlert, setBudgetAlert] = useState(null);
 
   const COLORS = ["#4F46E5", "#22C55E", "#F97316", "#06B6D4", "#E11D48", "#8B5CF6"];
 
-  // ==================== APIs ====================
-  const fetchUser = async () => {
+  // ==================== API ====================
+  // One snapshot call replaces profile + transactions + both analytics requests
+  const fetchDashboard = async () => {
     try {
-      const res = await API.get("/user/profile");
-      setUser(res.data);
-    } catch (err) {
-      console.error("Error fetching user:", err);
-    }
-  };
+      const res = await API.get("/dashboard");
+      const data = res.data;
 
-  const fetchTransactions = async () => {
-    try {
-      const res = await API.get("/transactions");
-      setTransactions(res.data);
-    } catch (err) {
-      console.error("Error fetching transactions:", err);
-    }
-  };
-
-  const fetchAnalytics = async () => {
-    try {
-      const catRes = await API.get("/analytics/category-summary");
-      const monRes = await API.get("/analytics/monthly-summary");
+      setUser(data.profile || {});
+      setTotals(data.totals || { income: 0, expense: 0, balance: 0 });
+      setRecent(data.recentTransactions || []);
 
-      const formattedCat = Object.entries(catRes.data).map(([name, value]) => ({
+      const formattedCat = Object.entries(data.categoryTotals || {}).map(([name, value]) => ({
         name,
         value
       }));
 
       setCategoryData(formattedCat);
-      setMonthlyData(monRes.data);
+      setMonthlyData(data.monthlySeries || []);
     } catch (err) {
-      console.error("Analytics error:", err);
+      console.error("Error fetching dashboard:", err);
     }
   };
 
   useEffect(() => {
-    fetchUser();
-    fetchTransactions();
-    fetchAnalytics();
+    fetchDashboard();
   }, []);
 
-  // ==================== Calculations ====================
-  const totalIncome = transactions
-    .filter((t) => t.type === "INCOME")
-    .reduce((s, t) => s + t.amount, 0);
-
-  const totalExpense = transactions
-    .filter((t) => t.type === "EXPENSE")
-    .reduce((s, t) => s + t.amount, 0);
-
-  const balance = totalIncome - totalExpense;
+  // Live updates: any change event just re-fetches (cheap, the dashboard answers 304 when nothing moved)
+  useEffect(() => {
+    const stream = openStream();
+    if (!stream) return;
+
+    const refresh = () => fetchDashboard();
+    ["transaction", "goal", "refresh"].forEach((name) => stream.addEventListener(name, refresh));
+    stream.addEventListener("budget", (e) => {
+      const data = JSON.parse(e.data);
+      if (data.crossed === "up") setBudgetAlert(data);
+      fetchDashboard();
+    });
+
+    return () => stream.close();
+  }, []);
 
-  const recent = [...transactions]
-    .sort((a, b) => new Date(b.date) - new Date(a.date))
-    .slice(0, 5);
+  // ==================== Calculations ====================
+  const totalIncome = totals.income;
+  const totalExpense = totals.expense;
+  const balance = totals.balance;
 
   const tips = [
     "Small savings everyday lead to big achievements!",
@@ -110,6 +103,15 @@ export default function Dashboard() {
           </div>
         </div>
 
+        {budgetAlert && (
+          <div className="mb-8 bg-white text-red-700 px-6 py-4 rounded-2xl shadow-lg flex justify-between items-center">
+            <span>
+              ⚠️ {budgetAlert.category} budget is at {budgetAlert.percent}% (passed {budgetAlert.threshold}%)
+            </span>
+            <button onClick={() => setBudgetAlert(null)} className="font-semibold">✕</button>
+          </div>
+        )}
+
         {/* SUMMARY CARDS */}
         <div className="grid grid-cols-1 md:grid-cols-3 gap-8 mb-10">
           <SummaryCard title="Total Income" amount={totalIncome} type="income" />
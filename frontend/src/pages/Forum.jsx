@@ -1,5 +1,5 @@
 import React, { useEffect, useState } from "react";
-import API from "../services/api";
+import API, { openStream } from "../services/api";
 import { motion } from "framer-motion";
 import { MessageCircle, Heart, Send } from "lucide-react";
 
@@ -23,6 +23,19 @@ export default function Forum() {
     fetchPosts();
   }, []);
 
+  // New posts (and activity on other servers) arrive over the live stream
+  useEffect(() => {
+    const stream = openStream();
+    if (!stream) return;
+
+    stream.addEventListener("forum-post", () => fetchPosts());
+    stream.addEventListener("refresh", (e) => {
+      if (JSON.parse(e.data).scope === "forum") fetchPosts();
+    });
+
+    return () => stream.close();
+  }, []);
+
   // Create Post
   const createPost = async () => {
     if (!newPost.content.trim()) return alert("Please write something!");
@@ -17,16 +17,34 @@ export default function Goals() {
   // ⭐ Validation error state
   const [goalError, setGoalError] = useState("");
 
+  // goal id → latest contributions (only for goals whose history is open)
+  const [history, setHistory] = useState({});
+
+  // goal id → Monte Carlo forecast entry
+  const [forecast, setForecast] = useState({});
+
   const fetchGoals = async () => {
     try {
       const res = await API.get("/goals");
       setGoals(res.data);
+      fetchForecast();
     } catch (err) {
       console.error(err);
       alert("Failed to load goals");
     }
   };
 
+  const fetchForecast = async () => {
+    try {
+      const res = await API.get("/goals/forecast");
+      const byId = {};
+      (res.data.goals || []).forEach((f) => (byId[f.id] = f));
+      setForecast(byId);
+    } catch (err) {
+      console.error(err);
+    }
+  };
+
   useEffect(() => {
     fetchGoals();
   }, []);
@@ -58,7 +76,12 @@ export default function Goals() {
     setLoading(true);
 
     try {
-      await API.post("/goals", form);
+      if (isEditing) {
+        // savedAmount is ignored on edit: money moves through contributions
+        await API.put(`/goals/${form.id}`, form);
+      } else {
+        await API.post("/goals", form);
+      }
       alert(isEditing ? "Goal updated!" : "Goal added!");
       resetForm();
       fetchGoals();
@@ -83,6 +106,37 @@ export default function Goals() {
     fetchGoals();
   };
 
+  const loadHistory = async (goalId) => {
+    const res = await API.get(`/goals/${goalId}/contributions`, { params: { size: 10 } });
+    setHistory((h) => ({ ...h, [goalId]: res.data.items }));
+  };
+
+  const toggleHistory = (goalId) => {
+    if (history[goalId]) {
+      setHistory(({ [goalId]: _, ...rest }) => rest);
+    } else {
+      loadHistory(goalId).catch((err) => console.error(err));
+    }
+  };
+
+  const handleContribute = async (g) => {
+    const input = window.prompt(`Amount to add to "${g.goalName}" (negative to withdraw)`);
+    if (!input) return;
+    const amount = Number(input);
+    if (!amount) {
+      alert("Enter a non-zero amount");
+      return;
+    }
+    try {
+      await API.post(`/goals/${g.id}/contributions`, { amount });
+      fetchGoals();
+      if (history[g.id]) loadHistory(g.id);
+    } catch (err) {
+      console.error(err);
+      alert(err.response?.data?.message || "Could not save the contribution");
+    }
+  };
+
   const resetForm = () => {
     setForm({
       id: null,
@@ -157,6 +211,8 @@ export default function Goals() {
                 placeholder="Saved (₹)"
                 value={form.savedAmount}
                 onChange={handleChange}
+                disabled={isEditing}
+                title={isEditing ? "Use Add money on the goal card" : undefined}
                 className="border rounded-xl px-4 py-3 shadow-sm bg-white focus:ring-2 focus:ring-indigo-400"
               />
               <div className="h-5"></div>
@@ -239,10 +295,50 @@ export default function Goals() {
                     <p className="text-sm mt-3 text-gray-700 font-semibold">
                       Remaining: ₹{remaining.toFixed(2)}
                     </p>
+
+                    {forecast[g.id]?.probability != null && (
+                      <p
+                        className="text-sm mt-1 text-indigo-700"
+                        title={
+                          forecast[g.id].savedByDeadline
+                            ? `Likely saved by deadline: ₹${forecast[g.id].savedByDeadline.p10} – ₹${forecast[g.id].savedByDeadline.p90}`
+                            : undefined
+                        }
+                      >
+                        🎯 {Math.round(forecast[g.id].probability * 100)}% likely by the deadline
+                      </p>
+                    )}
                   </div>
 
+                  {/* Contribution history */}
+                  {history[g.id] && (
+                    <ul className="mt-4 text-sm text-gray-700 space-y-1">
+                      {history[g.id].length === 0 && <li>No contributions yet.</li>}
+                      {history[g.id].map((c) => (
+                        <li key={c.id} className="flex justify-between">
+                          <span>{c.date} {c.note ? `· ${c.note}` : ""}</span>
+                          <span className={c.amount < 0 ? "text-red-600" : "text-green-700"}>
+                            {c.amount < 0 ? "-" : "+"}₹{Math.abs(c.amount)}
+                          </span>
+                        </li>
+                      ))}
+                    </ul>
+                  )}
+
                   {/* Action Buttons */}
                   <div className="flex justify-end space-x-4 mt-5">
+                    <button
+                      onClick={() => handleContribute(g)}
+                      className="text-green-600 hover:text-green-800 font-semibold"
+                    >
+                      Add money
+                    </button>
+                    <button
+                      onClick={() => toggleHistory(g.id)}
+                      className="text-indigo-600 hover:text-indigo-800 font-semibold"
+                    >
+                      {history[g.id] ? "Hide history" : "History"}
+                    </button>
                     <button
                       onClick={() => handleEdit(g)}
                       className="text-blue-600 hover:text-blue-800 font-semibold"
@@ -65,7 +65,14 @@ export default function Transactions() {
       fetchTransactions();
     } catch (err) {
       console.error(err);
-      alert("Error saving transaction");
+      if (err.response?.status === 409) {
+        // Edited elsewhere since we loaded it: show the latest instead of overwriting
+        alert("This transaction was changed in another tab. The latest version has been loaded.");
+        resetForm();
+        fetchTransactions();
+      } else {
+        alert("Error saving transaction");
+      }
     } finally {
       setLoading(false);
     }
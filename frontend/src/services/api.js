@@ -12,4 +12,50 @@ API.interceptors.request.use((config) => {
   return config;
 });
 
+// Server-sent events (/api/stream). EventSource cannot send headers, so each
+// connection first gets a one-time ticket (valid for seconds) and passes that
+// in the query string; the JWT itself never appears in a URL. A ticket cannot
+// be reused, so every reconnect (server timeout, dropped network) fetches a
+// new one. Returns an object with EventSource's addEventListener and close.
+export const openStream = () => {
+  if (!localStorage.getItem("token") || typeof EventSource === "undefined") return null;
+
+  const listeners = [];
+  let source = null;
+  let retry = null;
+  let closed = false;
+
+  const reconnect = () => {
+    if (!closed) retry = setTimeout(connect, 5000);
+  };
+
+  const connect = async () => {
+    try {
+      const { data } = await API.post("/stream/ticket");
+      if (closed) return;
+      source = new EventSource(`${API.defaults.baseURL}/stream?ticket=${encodeURIComponent(data.ticket)}`);
+      listeners.forEach(([name, fn]) => source.addEventListener(name, fn));
+      source.onerror = () => {
+        source.close();
+        reconnect();
+      };
+    } catch {
+      reconnect();
+    }
+  };
+
+  connect();
+  return {
+    addEventListener(name, fn) {
+      listeners.push([name, fn]);
+      if (source) source.addEventListener(name, fn);
+    },
+    close() {
+      closed = true;
+      clearTimeout(retry);
+      if (source) source.close();
+    },
+  };
+};
+
 export default API;